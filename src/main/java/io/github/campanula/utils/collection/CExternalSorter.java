@@ -0,0 +1,475 @@
+package io.github.campanula.utils.collection;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * 外部排序/去重 用于内存放不下的数据
+ * 每次在内存里最多排序maxRecordsInMemory条 排好序后写到临时文件 最后把所有临时文件多路归并 按需读取
+ * 临时文件太多时先分组归并 同时打开的文件不超过maxOpenFiles个
+ * 内存占用只和maxRecordsInMemory maxOpenFiles bufferSize有关 和数据的总量无关
+ * 全部数据在内存里放得下时不会写文件
+ * @param <T> 元素类型
+ */
+public final class CExternalSorter<T> {
+
+    /**
+     * 元素写入临时文件和从临时文件读出的方法 两者必须对称
+     * @param <T> 元素类型
+     */
+    public interface Serializer<T> {
+
+        void write(T value, DataOutput out) throws IOException;
+
+        T read(DataInput in) throws IOException;
+    }
+
+    private final Serializer<T> serializer;
+    private final Comparator<? super T> comparator;
+    private final int maxRecordsInMemory;
+    private final int maxOpenFiles;
+    private final int bufferSize;
+    private final Path tempDir;
+    private final boolean distinct;
+
+    private CExternalSorter(Builder<T> builder) {
+        this.serializer = builder.serializer;
+        this.comparator = builder.comparator;
+        this.maxRecordsInMemory = builder.maxRecordsInMemory;
+        this.maxOpenFiles = builder.maxOpenFiles;
+        this.bufferSize = builder.bufferSize;
+        this.tempDir = builder.tempDir;
+        this.distinct = builder.distinct;
+    }
+
+    /**
+     * 读完所有输入并写好临时文件后返回 返回的迭代器按需从临时文件读取
+     * @param input 输入 会被读完
+     * @return 排好序的迭代器 读完后会自动删除临时文件 提前结束时需要调用close
+     */
+    public SortedIterator<T> sort(Stream<? extends T> input) {
+        try (Stream<? extends T> stream = input) {
+            return sort(stream.iterator());
+        }
+    }
+
+    /**
+     * 读完所有输入并写好临时文件后返回 返回的迭代器按需从临时文件读取
+     * @param input 输入 会被读完
+     * @return 排好序的迭代器 读完后会自动删除临时文件 提前结束时需要调用close
+     */
+    @SuppressWarnings("unchecked")
+    public SortedIterator<T> sort(Iterator<? extends T> input) {
+        List<Run> runs = new ArrayList<>();
+        try {
+            Object[] buffer = new Object[Math.min(maxRecordsInMemory, 1024)];
+            int size = 0;
+            while (input.hasNext()) {
+                if (size == buffer.length) {
+                    if (size == maxRecordsInMemory) {
+                        runs.add(spill(buffer, size));
+                        size = 0;
+                    }
+                    else {
+                        buffer = Arrays.copyOf(buffer, Math.min(maxRecordsInMemory, size + (size >> 1)));
+                    }
+                }
+                buffer[size++] = input.next();
+            }
+
+            if (runs.isEmpty()) {
+                Arrays.sort(buffer, 0, size, (Comparator<Object>) comparator);
+                return new SortedIterator<>(new MemoryIterator(buffer, size), runs, null);
+            }
+            if (size > 0) runs.add(spill(buffer, size));
+            buffer = null;
+
+            // 分组归并 直到可以同时打开所有文件
+            while (runs.size() > maxOpenFiles) {
+                List<Run> merged = new ArrayList<>();
+                try {
+                    for (int from = 0; from < runs.size(); from += maxOpenFiles) {
+                        List<Run> group = runs.subList(from, Math.min(from + maxOpenFiles, runs.size()));
+                        merged.add(group.size() == 1 ? group.get(0) : mergeToRun(group));
+                    }
+                }
+                catch (IOException | RuntimeException | Error e) {
+                    delete(merged);
+                    throw e;
+                }
+                runs = merged;
+            }
+            Merger merger = new Merger(runs);
+            return new SortedIterator<>(merger, runs, merger);
+        }
+        catch (IOException e) {
+            delete(runs);
+            throw new CampanulaRuntimeException(e);
+        }
+        catch (RuntimeException | Error e) {
+            delete(runs);
+            throw e;
+        }
+    }
+
+    /**
+     * 把内存里的一段排序后写到临时文件
+     */
+    @SuppressWarnings("unchecked")
+    private Run spill(Object[] buffer, int size) throws IOException {
+        Arrays.sort(buffer, 0, size, (Comparator<Object>) comparator);
+        Run run = newRun();
+        try (DataOutputStream out = run.output(bufferSize)) {
+            Object last = null;
+            for (int i = 0; i < size; i++) {
+                T value = (T) buffer[i];
+                buffer[i] = null;
+                if (distinct && i > 0 && comparator.compare((T) last, value) == 0) continue;
+                serializer.write(value, out);
+                run.count++;
+                last = value;
+            }
+        }
+        catch (IOException | RuntimeException | Error e) {
+            run.delete();
+            throw e;
+        }
+        return run;
+    }
+
+    /**
+     * 把一组临时文件归并成一个 归并完成后删除原来的文件
+     */
+    private Run mergeToRun(List<Run> group) throws IOException {
+        Merger merger = new Merger(group);
+        Run run = null;
+        try {
+            run = newRun();
+            try (DataOutputStream out = run.output(bufferSize)) {
+                while (merger.hasNext()) {
+                    serializer.write(merger.next(), out);
+                    run.count++;
+                }
+            }
+        }
+        catch (IOException | RuntimeException | Error e) {
+            if (run != null) run.delete();
+            throw e;
+        }
+        finally {
+            merger.close();
+        }
+        delete(group);
+        return run;
+    }
+
+    private Run newRun() throws IOException {
+        return new Run(tempDir == null ? Files.createTempFile("campanula-sort-", ".run") : Files.createTempFile(tempDir, "campanula-sort-", ".run"));
+    }
+
+    private static void delete(List<Run> runs) {
+        for (Run run : runs) run.delete();
+    }
+
+    /**
+     * 排好序的一个临时文件
+     */
+    private static final class Run {
+
+        private final Path file;
+        private long count;
+
+        private Run(Path file) {
+            this.file = file;
+        }
+
+        private DataOutputStream output(int bufferSize) throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), bufferSize));
+        }
+
+        private DataInputStream input(int bufferSize) throws IOException {
+            return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), bufferSize));
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(file);
+            }
+            catch (IOException ignored) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * 读取一个临时文件的位置
+     */
+    private final class Reader {
+
+        private final DataInputStream in;
+        private final int order;
+        private long remaining;
+        private T head;
+
+        private Reader(Run run, int order) throws IOException {
+            this.in = run.input(bufferSize);
+            this.order = order;
+            this.remaining = run.count;
+        }
+
+        private boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            remaining--;
+            head = serializer.read(in);
+            return true;
+        }
+
+        private void close() {
+            try {
+                in.close();
+            }
+            catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 多路归并 用大小为文件个数的堆 相等的元素按文件的先后顺序
+     */
+    private final class Merger implements Iterator<T> {
+
+        private final PriorityQueue<Reader> heap;
+        private final List<Reader> readers;
+        private boolean hasLast;
+        private T last;
+        private boolean ready;
+        private T next;
+
+        private Merger(List<Run> runs) throws IOException {
+            this.heap = new PriorityQueue<>(runs.size(), (a, b) -> {
+                int cmp = comparator.compare(a.head, b.head);
+                return cmp != 0 ? cmp : Integer.compare(a.order, b.order);
+            });
+            this.readers = new ArrayList<>(runs.size());
+            try {
+                for (int i = 0; i < runs.size(); i++) {
+                    Reader reader = new Reader(runs.get(i), i);
+                    readers.add(reader);
+                    if (reader.advance()) heap.add(reader);
+                }
+            }
+            catch (IOException | RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (ready) return true;
+            try {
+                while (!heap.isEmpty()) {
+                    Reader reader = heap.poll();
+                    T value = reader.head;
+                    if (reader.advance()) heap.add(reader);
+                    if (distinct && hasLast && comparator.compare(last, value) == 0) continue;
+                    hasLast = true;
+                    last = value;
+                    next = value;
+                    ready = true;
+                    return true;
+                }
+            }
+            catch (IOException e) {
+                throw new CampanulaRuntimeException(e);
+            }
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            ready = false;
+            T value = next;
+            next = null;
+            return value;
+        }
+
+        private void close() {
+            for (Reader reader : readers) reader.close();
+            heap.clear();
+        }
+    }
+
+    /**
+     * 全部数据在内存里时的迭代器
+     */
+    private final class MemoryIterator implements Iterator<T> {
+
+        private final Object[] values;
+        private final int size;
+        private int index;
+
+        private MemoryIterator(Object[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (index >= size) throw new NoSuchElementException();
+            T value = (T) values[index];
+            values[index++] = null;
+            // 去重 跳过和当前相等的元素
+            while (distinct && index < size && comparator.compare(value, (T) values[index]) == 0) values[index++] = null;
+            return value;
+        }
+    }
+
+    /**
+     * 排好序的结果 读完或者close后删除临时文件
+     * @param <T> 元素类型
+     */
+    public static final class SortedIterator<T> implements Iterator<T>, AutoCloseable {
+
+        private final Iterator<T> delegate;
+        private final List<?> runs;
+        private final CExternalSorter<T>.Merger merger;
+        private boolean closed;
+
+        private SortedIterator(Iterator<T> delegate, List<?> runs, CExternalSorter<T>.Merger merger) {
+            this.delegate = delegate;
+            this.runs = runs;
+            this.merger = merger;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) return false;
+            if (delegate.hasNext()) return true;
+            close();
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return delegate.next();
+        }
+
+        /**
+         * @return 写到临时文件的次数 全部在内存里时为0
+         */
+        public int getRunCount() {
+            return runs.size();
+        }
+
+        /**
+         * 关闭打开的临时文件并删除
+         */
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            if (merger != null) merger.close();
+            for (Object run : runs) ((Run) run).delete();
+        }
+    }
+
+    /**
+     * @param serializer 序列化方法
+     * @param comparator 排序规则
+     * @param <T> 元素类型
+     * @return 构造器
+     */
+    public static <T> Builder<T> aBuilder(Serializer<T> serializer, Comparator<? super T> comparator) {
+        return new Builder<>(serializer, comparator);
+    }
+
+    public final static class Builder<T> {
+
+        private final Serializer<T> serializer;
+        private final Comparator<? super T> comparator;
+        private int maxRecordsInMemory = 100000;
+        private int maxOpenFiles = 64;
+        private int bufferSize = 64 * 1024;
+        private Path tempDir;
+        private boolean distinct;
+
+        private Builder(Serializer<T> serializer, Comparator<? super T> comparator) {
+            if (serializer == null || comparator == null) throw new CampanulaRuntimeException("serializer and comparator must not be null");
+            this.serializer = serializer;
+            this.comparator = comparator;
+        }
+
+        /**
+         * @param maxRecordsInMemory 每次在内存里排序的条数 默认100000
+         */
+        public Builder<T> maxRecordsInMemory(int maxRecordsInMemory) {
+            if (maxRecordsInMemory < 1) throw new CampanulaRuntimeException("maxRecordsInMemory must be greater than 0");
+            this.maxRecordsInMemory = maxRecordsInMemory;
+            return this;
+        }
+
+        /**
+         * @param maxOpenFiles 归并时同时打开的文件数 默认64
+         */
+        public Builder<T> maxOpenFiles(int maxOpenFiles) {
+            if (maxOpenFiles < 2) throw new CampanulaRuntimeException("maxOpenFiles must be at least 2");
+            this.maxOpenFiles = maxOpenFiles;
+            return this;
+        }
+
+        /**
+         * @param bufferSize 每个文件读写的缓冲区大小 默认64KB
+         */
+        public Builder<T> bufferSize(int bufferSize) {
+            if (bufferSize < 1) throw new CampanulaRuntimeException("bufferSize must be greater than 0");
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * @param tempDir 临时文件的目录 默认为java.io.tmpdir
+         */
+        public Builder<T> tempDir(Path tempDir) {
+            this.tempDir = tempDir;
+            return this;
+        }
+
+        /**
+         * 按comparator去重 相等的元素只保留第一个
+         */
+        public Builder<T> distinct() {
+            this.distinct = true;
+            return this;
+        }
+
+        public CExternalSorter<T> getSorter() {
+            return new CExternalSorter<>(this);
+        }
+    }
+}
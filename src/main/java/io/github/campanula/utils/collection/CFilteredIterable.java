@@ -0,0 +1,61 @@
+package io.github.campanula.utils.collection;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 过滤并转换后的只读视图 遍历时才过滤和转换 不会创建中间集合
+ * 每次调用iterator都会重新遍历原集合 只取前几个时不会处理剩下的元素
+ * @param <T> 原始数据类型
+ * @param <R> 转换后的数据类型
+ */
+public final class CFilteredIterable<T, R> implements Iterable<R> {
+
+    private final Iterable<T> source;
+    private final Predicate<? super T> filter;
+    private final Function<? super T, ? extends R> mapper;
+
+    /**
+     * @param source 原集合
+     * @param filter 保留满足条件的元素
+     * @param mapper 转换方法 只对满足条件的元素调用
+     */
+    public CFilteredIterable(Iterable<T> source, Predicate<? super T> filter, Function<? super T, ? extends R> mapper) {
+        this.source = source;
+        this.filter = filter;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public Iterator<R> iterator() {
+        Iterator<T> iterator = source.iterator();
+        return new Iterator<R>() {
+
+            private T next;
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                while (!ready && iterator.hasNext()) {
+                    T value = iterator.next();
+                    if (filter.test(value)) {
+                        next = value;
+                        ready = true;
+                    }
+                }
+                return ready;
+            }
+
+            @Override
+            public R next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                ready = false;
+                T value = next;
+                next = null;
+                return mapper.apply(value);
+            }
+        };
+    }
+}
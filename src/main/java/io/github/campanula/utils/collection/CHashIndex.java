@@ -0,0 +1,117 @@
+package io.github.campanula.utils.collection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 按key建立的哈希索引 一个key可以对应多个值 构造后不可变 可以被多个线程共用 反复用于和其他集合关联
+ * HashMap按元素个数预先分配好容量 同一个key的多个值用int数组串成链表 不为每个key创建List
+ * key为null的元素不会进入索引
+ * @param <K> key的类型
+ * @param <V> 值的类型
+ */
+public final class CHashIndex<K, V> {
+
+    private final List<V> values;
+
+    /**
+     * key对应的第一个值的下标
+     */
+    private final HashMap<K, Integer> heads;
+
+    /**
+     * 同一个key的下一个值的下标 没有时为-1
+     */
+    private final int[] next;
+
+    private CHashIndex(List<V> values, HashMap<K, Integer> heads, int[] next) {
+        this.values = values;
+        this.heads = heads;
+        this.next = next;
+    }
+
+    /**
+     * @param values 要建立索引的集合 不支持随机访问时会先复制成ArrayList
+     * @param key 获取key的方法
+     * @param <K> key的类型
+     * @param <V> 值的类型
+     * @return 索引
+     */
+    public static <K, V> CHashIndex<K, V> of(List<V> values, Function<? super V, ? extends K> key) {
+        List<V> source = values instanceof RandomAccess ? values : new ArrayList<>(values);
+        int size = source.size();
+        HashMap<K, Integer> heads = new HashMap<>((int) (size / 0.75F) + 1);
+        int[] next = new int[size];
+        // 倒序插入 链表的顺序与原集合一致
+        for (int i = size - 1; i >= 0; i--) {
+            K k = key.apply(source.get(i));
+            if (k == null) {
+                next[i] = -1;
+                continue;
+            }
+            Integer head = heads.put(k, i);
+            next[i] = head == null ? -1 : head;
+        }
+        return new CHashIndex<>(source, heads, next);
+    }
+
+    /**
+     * @param key key
+     * @return 是否有这个key
+     */
+    public boolean contains(Object key) {
+        return key != null && heads.containsKey(key);
+    }
+
+    /**
+     * @param key key
+     * @return key对应的第一个值 没有时返回null
+     */
+    public V first(Object key) {
+        Integer head = key == null ? null : heads.get(key);
+        return head == null ? null : values.get(head);
+    }
+
+    /**
+     * @param key key
+     * @return key对应的所有值 按原集合的顺序 没有时返回空集合
+     */
+    public List<V> get(Object key) {
+        Integer head = key == null ? null : heads.get(key);
+        if (head == null) return Collections.emptyList();
+        if (next[head] < 0) return Collections.singletonList(values.get(head));
+        List<V> list = new ArrayList<>();
+        for (int i = head; i >= 0; i = next[i]) list.add(values.get(i));
+        return list;
+    }
+
+    /**
+     * 按原集合的顺序处理key对应的所有值 不创建集合
+     * @param key key
+     * @param consumer 处理方法
+     */
+    public void forEach(Object key, Consumer<? super V> consumer) {
+        Integer head = key == null ? null : heads.get(key);
+        if (head == null) return;
+        for (int i = head; i >= 0; i = next[i]) consumer.accept(values.get(i));
+    }
+
+    /**
+     * @return 不同key的个数
+     */
+    public int keyCount() {
+        return heads.size();
+    }
+
+    /**
+     * @return 建立索引的元素个数
+     */
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.campanula.utils.collection;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+/**
+ * 开放寻址的集合和HyperLogLog共用的哈希方法
+ */
+final class CHashing {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private CHashing() {
+    }
+
+    /**
+     * murmur3的fmix64 低位和高位都足够分散
+     */
+    static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * 用于数组下标 取mix64的高32位
+     */
+    static int mix(long value) {
+        return (int) (mix64(value) >>> 32);
+    }
+
+    /**
+     * @return 放入expected个元素不需要扩容的2的幂容量
+     */
+    static int capacity(int expected, float loadFactor) {
+        long needed = (long) Math.ceil(Math.max(expected, 1) / (double) loadFactor) + 1;
+        if (needed > MAX_CAPACITY) throw new CampanulaRuntimeException("too many elements: " + expected);
+        return Math.max(4, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    /**
+     * @return 扩容后的容量
+     */
+    static int grow(int capacity) {
+        if (capacity >= MAX_CAPACITY) throw new CampanulaRuntimeException("too many elements: " + capacity);
+        return capacity << 1;
+    }
+}
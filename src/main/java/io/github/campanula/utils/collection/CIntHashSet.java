@@ -0,0 +1,201 @@
+package io.github.campanula.utils.collection;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * int的哈希集合 开放寻址 线性探测 所有元素放在一个int数组里 不装箱 没有节点对象
+ * 每个元素大约占用4/loadFactor个字节 HashSet&lt;Integer&gt;每个元素大约要占用40-50个字节
+ * 不是线程安全的
+ */
+public final class CIntHashSet implements CPrimitiveCollection {
+
+    /**
+     * 空位 0本身用hasZero单独记录
+     */
+    private static final int EMPTY = 0;
+
+    private final float loadFactor;
+    private int[] keys;
+    private int mask;
+    private int size;
+    private int threshold;
+    private boolean hasZero;
+
+    public CIntHashSet() {
+        this(16, 0.5F);
+    }
+
+    /**
+     * @param expected 预计的元素个数 放入这么多元素之前不会扩容
+     */
+    public CIntHashSet(int expected) {
+        this(expected, 0.5F);
+    }
+
+    /**
+     * @param expected 预计的元素个数 放入这么多元素之前不会扩容
+     * @param loadFactor 负载因子 (0, 1) 越小探测越短 占用越多
+     */
+    public CIntHashSet(int expected, float loadFactor) {
+        if (expected < 0) throw new CampanulaRuntimeException("expected must not be negative: " + expected);
+        if (!(loadFactor > 0F && loadFactor < 1F)) throw new CampanulaRuntimeException("loadFactor must be in (0, 1): " + loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(CHashing.capacity(expected, loadFactor));
+    }
+
+    /**
+     * @param values 元素
+     * @return 去重后的集合
+     */
+    public static CIntHashSet of(int... values) {
+        CIntHashSet set = new CIntHashSet(values.length);
+        for (int value : values) set.add(value);
+        return set;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * @return 是否是新加入的元素
+     */
+    public boolean add(int value) {
+        if (value == EMPTY) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int i = CHashing.mix(value) & mask;
+        for (int key; (key = keys[i]) != EMPTY; i = (i + 1) & mask) {
+            if (key == value) return false;
+        }
+        keys[i] = value;
+        if (++size > threshold) rehash(CHashing.grow(keys.length));
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value == EMPTY) return hasZero;
+        int i = CHashing.mix(value) & mask;
+        for (int key; (key = keys[i]) != EMPTY; i = (i + 1) & mask) {
+            if (key == value) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return 是否存在并被删除
+     */
+    public boolean remove(int value) {
+        if (value == EMPTY) {
+            if (!hasZero) return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int i = CHashing.mix(value) & mask;
+        for (int key; (key = keys[i]) != EMPTY; i = (i + 1) & mask) {
+            if (key == value) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 删除后把后面同一段探测链上的元素向前移动 不使用删除标记 查找不会因为删除变慢
+     */
+    private void shiftBack(int gap) {
+        for (int i = (gap + 1) & mask; ; i = (i + 1) & mask) {
+            int key = keys[i];
+            if (key == EMPTY) break;
+            int home = CHashing.mix(key) & mask;
+            // home不在(gap, i]之间时 可以移动到gap
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = key;
+                gap = i;
+            }
+        }
+        keys[gap] = EMPTY;
+    }
+
+    /**
+     * 按数组中的顺序遍历 不是插入顺序
+     */
+    public void forEach(IntConsumer action) {
+        if (hasZero) action.accept(EMPTY);
+        for (int key : keys) {
+            if (key != EMPTY) action.accept(key);
+        }
+    }
+
+    public int[] toArray() {
+        int[] array = new int[size];
+        int n = 0;
+        if (hasZero) array[n++] = EMPTY;
+        for (int key : keys) {
+            if (key != EMPTY) array[n++] = key;
+        }
+        return array;
+    }
+
+    public CIntList toList() {
+        return CIntList.of(toArray());
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.mask = capacity - 1;
+        this.threshold = (int) (capacity * loadFactor);
+    }
+
+    private void rehash(int capacity) {
+        int[] old = keys;
+        allocate(capacity);
+        for (int key : old) {
+            if (key == EMPTY) continue;
+            int i = CHashing.mix(key) & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = key;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CIntHashSet)) return false;
+        CIntHashSet other = (CIntHashSet) o;
+        if (size != other.size || hasZero != other.hasZero) return false;
+        for (int key : keys) {
+            if (key != EMPTY && !other.contains(key)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int key : keys) hash += key;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return CIntList.of(toArray()).toString();
+    }
+}
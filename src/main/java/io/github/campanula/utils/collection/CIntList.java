@@ -0,0 +1,267 @@
+package io.github.campanula.utils.collection;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * int的可增长列表 每个元素4个字节 List&lt;Integer&gt;每个元素大约要占用20-28个字节
+ * 不是线程安全的
+ */
+public final class CIntList implements CPrimitiveList {
+
+    private static final int[] EMPTY = {};
+
+    private int[] elements;
+    private int size;
+
+    public CIntList() {
+        this.elements = EMPTY;
+    }
+
+    /**
+     * @param capacity 初始容量
+     */
+    public CIntList(int capacity) {
+        if (capacity < 0) throw new CampanulaRuntimeException("capacity must not be negative: " + capacity);
+        this.elements = capacity == 0 ? EMPTY : new int[capacity];
+    }
+
+    /**
+     * @param values 元素 会复制一份
+     * @return 列表
+     */
+    public static CIntList of(int... values) {
+        CIntList list = new CIntList(values.length);
+        list.addAll(values);
+        return list;
+    }
+
+    /**
+     * @param values 装箱的元素 不能有null
+     * @return 列表
+     */
+    public static CIntList from(Collection<Integer> values) {
+        CIntList list = new CIntList(values.size());
+        for (Integer value : values) list.elements[list.size++] = value;
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > elements.length) grow(capacity);
+    }
+
+    @Override
+    public void trimToSize() {
+        if (size < elements.length) elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+    }
+
+    public void add(int value) {
+        if (size == elements.length) grow(size + 1);
+        elements[size++] = value;
+    }
+
+    public void addAll(int[] values) {
+        addAll(values, 0, values.length);
+    }
+
+    /**
+     * @param values 要添加的数组
+     * @param from 开始下标(包含)
+     * @param to 结束下标(不包含)
+     */
+    public void addAll(int[] values, int from, int to) {
+        int length = to - from;
+        ensureCapacity(size + length);
+        System.arraycopy(values, from, elements, size, length);
+        size += length;
+    }
+
+    public void addAll(CIntList values) {
+        addAll(values.elements, 0, values.size);
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    /**
+     * @return 原来的值
+     */
+    public int set(int index, int value) {
+        checkIndex(index);
+        int old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    /**
+     * 删除下标为index的元素 后面的元素向前移动
+     * @return 被删除的值
+     */
+    public int removeAt(int index) {
+        checkIndex(index);
+        int old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return old;
+    }
+
+    /**
+     * @return 第一次出现的下标 不存在时返回-1
+     */
+    public int indexOf(int value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) return i;
+        }
+        return -1;
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * 升序排序
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * 排序后才可以使用
+     * @return 找到时返回下标 找不到时返回 -(插入位置) - 1
+     */
+    public int binarySearch(int value) {
+        return Arrays.binarySearch(elements, 0, size, value);
+    }
+
+    public long sum() {
+        long sum = 0L;
+        for (int i = 0; i < size; i++) sum += elements[i];
+        return sum;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) action.accept(elements[i]);
+    }
+
+    /**
+     * @return 转换后的新列表
+     */
+    public CIntList map(IntUnaryOperator mapper) {
+        CIntList list = new CIntList(size);
+        for (int i = 0; i < size; i++) list.elements[i] = mapper.applyAsInt(elements[i]);
+        list.size = size;
+        return list;
+    }
+
+    /**
+     * @return 转换后的新列表
+     */
+    public CLongList mapToLong(IntToLongFunction mapper) {
+        CLongList list = new CLongList(size);
+        for (int i = 0; i < size; i++) list.add(mapper.applyAsLong(elements[i]));
+        return list;
+    }
+
+    /**
+     * @return 转换后的新列表
+     */
+    public <R> List<R> mapToObj(IntFunction<R> mapper) {
+        List<R> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(mapper.apply(elements[i]));
+        return list;
+    }
+
+    /**
+     * @return 满足条件的元素组成的新列表
+     */
+    public CIntList filter(IntPredicate predicate) {
+        CIntList list = new CIntList();
+        for (int i = 0; i < size; i++) {
+            if (predicate.test(elements[i])) list.add(elements[i]);
+        }
+        return list;
+    }
+
+    /**
+     * @return 装箱后的ArrayList
+     */
+    public List<Integer> boxed() {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(elements[i]);
+        return list;
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    /**
+     * @return 元素的副本
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = elements.length + (elements.length >> 1);
+        if (capacity < minCapacity) capacity = Math.max(minCapacity, 10);
+        elements = Arrays.copyOf(elements, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CIntList)) return false;
+        CIntList other = (CIntList) o;
+        if (size != other.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (elements[i] != other.elements[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) hash = 31 * hash + elements[i];
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(elements[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,282 @@
+package io.github.campanula.utils.collection;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * key为int的Map 开放寻址 线性探测 key和值分别放在两个数组里 没有Entry对象 get和put不装箱
+ * 每个元素大约占用8/loadFactor个字节(开启压缩指针时) HashMap&lt;Integer, V&gt;每个元素大约要占用50-60个字节
+ * 值不能为null 不是线程安全的
+ * @param <V> 值的类型
+ */
+public final class CIntObjectMap<V> implements CPrimitiveMap<V> {
+
+    /**
+     * 空位 0本身用zeroValue单独记录
+     */
+    private static final int EMPTY = 0;
+
+    /**
+     * 遍历key和值
+     * @param <V> 值的类型
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private final float loadFactor;
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+    private V zeroValue;
+
+    public CIntObjectMap() {
+        this(16, 0.5F);
+    }
+
+    /**
+     * @param expected 预计的元素个数 放入这么多元素之前不会扩容
+     */
+    public CIntObjectMap(int expected) {
+        this(expected, 0.5F);
+    }
+
+    /**
+     * @param expected 预计的元素个数 放入这么多元素之前不会扩容
+     * @param loadFactor 负载因子 (0, 1) 越小探测越短 占用越多
+     */
+    public CIntObjectMap(int expected, float loadFactor) {
+        if (expected < 0) throw new CampanulaRuntimeException("expected must not be negative: " + expected);
+        if (!(loadFactor > 0F && loadFactor < 1F)) throw new CampanulaRuntimeException("loadFactor must be in (0, 1): " + loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(CHashing.capacity(expected, loadFactor));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    @Override
+    public void ensureCapacity(int expected) {
+        int capacity = CHashing.capacity(expected, loadFactor);
+        if (capacity > keys.length) rehash(capacity);
+    }
+
+    /**
+     * @return key对应的值 没有时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == EMPTY) return zeroValue;
+        int i = CHashing.mix(key) & mask;
+        for (int k; (k = keys[i]) != EMPTY; i = (i + 1) & mask) {
+            if (k == key) return (V) values[i];
+        }
+        return null;
+    }
+
+    /**
+     * @return key对应的值 没有时返回defaultValue
+     */
+    public V getOrDefault(int key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param value 不能为null
+     * @return 原来的值 没有时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) throw new CampanulaRuntimeException("value must not be null");
+        if (key == EMPTY) {
+            V old = zeroValue;
+            zeroValue = value;
+            if (old == null) size++;
+            return old;
+        }
+        int i = CHashing.mix(key) & mask;
+        for (int k; (k = keys[i]) != EMPTY; i = (i + 1) & mask) {
+            if (k == key) {
+                V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) rehash(CHashing.grow(keys.length));
+        return null;
+    }
+
+    /**
+     * @return 已经存在的值 不存在时放入value并返回null
+     */
+    public V putIfAbsent(int key, V value) {
+        V old = get(key);
+        if (old != null) return old;
+        put(key, value);
+        return null;
+    }
+
+    /**
+     * @param mapping 不存在时生成值的方法 返回null时不放入
+     * @return 已经存在的或者新生成的值
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> mapping) {
+        V value = get(key);
+        if (value != null) return value;
+        value = mapping.apply(key);
+        if (value != null) put(key, value);
+        return value;
+    }
+
+    /**
+     * @return 被删除的值 没有时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == EMPTY) {
+            V old = zeroValue;
+            if (old != null) size--;
+            zeroValue = null;
+            return old;
+        }
+        int i = CHashing.mix(key) & mask;
+        for (int k; (k = keys[i]) != EMPTY; i = (i + 1) & mask) {
+            if (k == key) {
+                V old = (V) values[i];
+                shiftBack(i);
+                size--;
+                return old;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 删除后把后面同一段探测链上的元素向前移动 不使用删除标记 查找不会因为删除变慢
+     */
+    private void shiftBack(int gap) {
+        for (int i = (gap + 1) & mask; ; i = (i + 1) & mask) {
+            int key = keys[i];
+            if (key == EMPTY) break;
+            int home = CHashing.mix(key) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+    }
+
+    /**
+     * 按数组中的顺序遍历 不是插入顺序
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        if (zeroValue != null) action.accept(EMPTY, zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    /**
+     * @return 所有的key 顺序没有意义
+     */
+    public CIntList keys() {
+        CIntList list = new CIntList(size);
+        if (zeroValue != null) list.add(EMPTY);
+        for (int key : keys) {
+            if (key != EMPTY) list.add(key);
+        }
+        return list;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> list = new ArrayList<>(size);
+        if (zeroValue != null) list.add(zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) list.add((V) values[i]);
+        }
+        return list;
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.threshold = (int) (capacity * loadFactor);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            int key = oldKeys[j];
+            if (key == EMPTY) continue;
+            int i = CHashing.mix(key) & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = oldValues[j];
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CIntObjectMap)) return false;
+        CIntObjectMap<?> other = (CIntObjectMap<?>) o;
+        if (size != other.size) return false;
+        if (zeroValue == null ? other.zeroValue != null : !zeroValue.equals(other.zeroValue)) return false;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && !values[i].equals(other.get(keys[i]))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = zeroValue == null ? 0 : zeroValue.hashCode();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) hash += keys[i] ^ values[i].hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append('{');
+        forEach((key, value) -> {
+            if (builder.length() > 1) builder.append(", ");
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+}
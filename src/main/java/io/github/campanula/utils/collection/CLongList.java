@@ -0,0 +1,267 @@
+package io.github.campanula.utils.collection;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+/**
+ * long的可增长列表 每个元素8个字节 List&lt;Long&gt;每个元素大约要占用24-32个字节
+ * 不是线程安全的
+ */
+public final class CLongList implements CPrimitiveList {
+
+    private static final long[] EMPTY = {};
+
+    private long[] elements;
+    private int size;
+
+    public CLongList() {
+        this.elements = EMPTY;
+    }
+
+    /**
+     * @param capacity 初始容量
+     */
+    public CLongList(int capacity) {
+        if (capacity < 0) throw new CampanulaRuntimeException("capacity must not be negative: " + capacity);
+        this.elements = capacity == 0 ? EMPTY : new long[capacity];
+    }
+
+    /**
+     * @param values 元素 会复制一份
+     * @return 列表
+     */
+    public static CLongList of(long... values) {
+        CLongList list = new CLongList(values.length);
+        list.addAll(values);
+        return list;
+    }
+
+    /**
+     * @param values 装箱的元素 不能有null
+     * @return 列表
+     */
+    public static CLongList from(Collection<Long> values) {
+        CLongList list = new CLongList(values.size());
+        for (Long value : values) list.elements[list.size++] = value;
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > elements.length) grow(capacity);
+    }
+
+    @Override
+    public void trimToSize() {
+        if (size < elements.length) elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+    }
+
+    public void add(long value) {
+        if (size == elements.length) grow(size + 1);
+        elements[size++] = value;
+    }
+
+    public void addAll(long[] values) {
+        addAll(values, 0, values.length);
+    }
+
+    /**
+     * @param values 要添加的数组
+     * @param from 开始下标(包含)
+     * @param to 结束下标(不包含)
+     */
+    public void addAll(long[] values, int from, int to) {
+        int length = to - from;
+        ensureCapacity(size + length);
+        System.arraycopy(values, from, elements, size, length);
+        size += length;
+    }
+
+    public void addAll(CLongList values) {
+        addAll(values.elements, 0, values.size);
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    /**
+     * @return 原来的值
+     */
+    public long set(int index, long value) {
+        checkIndex(index);
+        long old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    /**
+     * 删除下标为index的元素 后面的元素向前移动
+     * @return 被删除的值
+     */
+    public long removeAt(int index) {
+        checkIndex(index);
+        long old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return old;
+    }
+
+    /**
+     * @return 第一次出现的下标 不存在时返回-1
+     */
+    public int indexOf(long value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) return i;
+        }
+        return -1;
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * 升序排序
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * 排序后才可以使用
+     * @return 找到时返回下标 找不到时返回 -(插入位置) - 1
+     */
+    public int binarySearch(long value) {
+        return Arrays.binarySearch(elements, 0, size, value);
+    }
+
+    public long sum() {
+        long sum = 0L;
+        for (int i = 0; i < size; i++) sum += elements[i];
+        return sum;
+    }
+
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < size; i++) action.accept(elements[i]);
+    }
+
+    /**
+     * @return 转换后的新列表
+     */
+    public CLongList map(LongUnaryOperator mapper) {
+        CLongList list = new CLongList(size);
+        for (int i = 0; i < size; i++) list.elements[i] = mapper.applyAsLong(elements[i]);
+        list.size = size;
+        return list;
+    }
+
+    /**
+     * @return 转换后的新列表
+     */
+    public CIntList mapToInt(LongToIntFunction mapper) {
+        CIntList list = new CIntList(size);
+        for (int i = 0; i < size; i++) list.add(mapper.applyAsInt(elements[i]));
+        return list;
+    }
+
+    /**
+     * @return 转换后的新列表
+     */
+    public <R> List<R> mapToObj(LongFunction<R> mapper) {
+        List<R> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(mapper.apply(elements[i]));
+        return list;
+    }
+
+    /**
+     * @return 满足条件的元素组成的新列表
+     */
+    public CLongList filter(LongPredicate predicate) {
+        CLongList list = new CLongList();
+        for (int i = 0; i < size; i++) {
+            if (predicate.test(elements[i])) list.add(elements[i]);
+        }
+        return list;
+    }
+
+    /**
+     * @return 装箱后的ArrayList
+     */
+    public List<Long> boxed() {
+        List<Long> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(elements[i]);
+        return list;
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    /**
+     * @return 元素的副本
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = elements.length + (elements.length >> 1);
+        if (capacity < minCapacity) capacity = Math.max(minCapacity, 10);
+        elements = Arrays.copyOf(elements, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CLongList)) return false;
+        CLongList other = (CLongList) o;
+        if (size != other.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (elements[i] != other.elements[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) hash = 31 * hash + Long.hashCode(elements[i]);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(elements[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
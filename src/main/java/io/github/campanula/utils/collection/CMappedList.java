@@ -0,0 +1,59 @@
+package io.github.campanula.utils.collection;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * 转换后的只读列表视图 访问时才调用转换方法
+ * get size subList都直接对应原列表的下标 原列表支持随机访问时不会复制 原列表的修改会反映到视图上
+ * 原列表不支持随机访问(例如LinkedList)时会先复制成ArrayList 之后原列表的修改不会反映到视图上
+ * memoize为true时每个下标只转换一次 结果保存在与原列表等长的数组里 此时不是线程安全的 且原列表不应再修改
+ * @param <T> 原始数据类型
+ * @param <R> 转换后的数据类型
+ */
+public final class CMappedList<T, R> extends AbstractList<R> implements RandomAccess {
+
+    private static final Object UNSET = new Object();
+
+    private final List<T> source;
+    private final Function<? super T, ? extends R> mapper;
+    private final Object[] cache;
+
+    /**
+     * @param source 原列表 不支持随机访问时会先复制
+     * @param mapper 转换方法
+     * @param memoize 是否缓存每个下标的转换结果
+     */
+    public CMappedList(List<T> source, Function<? super T, ? extends R> mapper, boolean memoize) {
+        this.source = source instanceof RandomAccess ? source : new ArrayList<>(source);
+        this.mapper = mapper;
+        if (memoize) {
+            this.cache = new Object[this.source.size()];
+            Arrays.fill(this.cache, UNSET);
+        }
+        else {
+            this.cache = null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public R get(int index) {
+        if (cache == null) return mapper.apply(source.get(index));
+        Object value = cache[index];
+        if (value == UNSET) {
+            value = mapper.apply(source.get(index));
+            cache[index] = value;
+        }
+        return (R) value;
+    }
+
+    @Override
+    public int size() {
+        return cache == null ? source.size() : cache.length;
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.campanula.utils.collection;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 按固定大小分批的只读视图 每一批都是原列表的subList 不会复制元素
+ * 最后一批可能不满batchSize 原列表的结构修改(增删)后视图不再可用
+ * @param <T> 元素类型
+ */
+public final class CPartitionList<T> extends AbstractList<List<T>> implements RandomAccess {
+
+    private final List<T> source;
+    private final int batchSize;
+
+    /**
+     * @param source 原列表 应当支持随机访问
+     * @param batchSize 每一批的大小
+     */
+    public CPartitionList(List<T> source, int batchSize) {
+        if (batchSize < 1) throw new CampanulaRuntimeException("batchSize must be greater than 0");
+        this.source = source;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public List<T> get(int index) {
+        int size = size();
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        int from = index * batchSize;
+        return source.subList(from, Math.min(from + batchSize, source.size()));
+    }
+
+    @Override
+    public int size() {
+        int size = source.size();
+        return size / batchSize + (size % batchSize == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.campanula.utils.collection;
+
+/**
+ * 基本类型集合 元素直接存放在基本类型数组里 不装箱
+ */
+public interface CPrimitiveCollection {
+
+    /**
+     * @return 元素个数
+     */
+    int size();
+
+    /**
+     * @return 是否没有元素
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 清空所有元素 不释放数组
+     */
+    void clear();
+}
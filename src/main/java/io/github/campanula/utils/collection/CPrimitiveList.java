@@ -0,0 +1,18 @@
+package io.github.campanula.utils.collection;
+
+/**
+ * 基本类型的可增长列表 类似ArrayList 不是线程安全的
+ */
+public interface CPrimitiveList extends CPrimitiveCollection {
+
+    /**
+     * 确保至少可以放下capacity个元素 不需要再扩容
+     * @param capacity 容量
+     */
+    void ensureCapacity(int capacity);
+
+    /**
+     * 把数组缩小到元素个数 释放多余的内存
+     */
+    void trimToSize();
+}
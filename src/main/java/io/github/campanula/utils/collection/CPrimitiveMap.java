@@ -0,0 +1,21 @@
+package io.github.campanula.utils.collection;
+
+import java.util.List;
+
+/**
+ * 基本类型key的Map key直接存放在基本类型数组里 不装箱 没有Entry对象 不是线程安全的
+ * @param <V> 值的类型
+ */
+public interface CPrimitiveMap<V> extends CPrimitiveCollection {
+
+    /**
+     * 确保放入expected个元素之前不需要再扩容
+     * @param expected 预计的元素个数
+     */
+    void ensureCapacity(int expected);
+
+    /**
+     * @return 所有的值 顺序没有意义
+     */
+    List<V> values();
+}
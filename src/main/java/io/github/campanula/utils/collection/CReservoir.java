@@ -0,0 +1,222 @@
+package io.github.campanula.utils.collection;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collector;
+
+/**
+ * 蓄水池抽样 一次遍历 O(n)时间 O(k)内存 不需要知道总数
+ * 每个元素分配一个随机的key 保留key最小的k个 key服从参数为权重的指数分布 权重都为1时就是等概率抽样
+ * 蓄水池满了以后按指数分布直接跳过不会进入的元素 随机数的次数约为k*log(n/k) 不是每个元素一次
+ * 不是线程安全的 并行时各自抽样后用merge合并 合并的结果与一次抽样的分布相同
+ * @param <T> 元素类型
+ */
+public final class CReservoir<T> {
+
+    private final int capacity;
+    private final Random random;
+
+    /**
+     * 按key的大顶堆 堆顶是当前进入蓄水池的门槛
+     */
+    private final double[] keys;
+    private final Object[] items;
+    private int size;
+    private long count;
+
+    /**
+     * 下一个进入蓄水池的元素之前还要跳过的权重
+     */
+    private double skip;
+
+    private CReservoir(int capacity, Random random) {
+        if (capacity < 1) throw new CampanulaRuntimeException("capacity must be greater than 0");
+        this.capacity = capacity;
+        this.random = random;
+        this.keys = new double[capacity];
+        this.items = new Object[capacity];
+    }
+
+    /**
+     * @param capacity 抽样的个数
+     * @return 蓄水池
+     */
+    public static <T> CReservoir<T> of(int capacity) {
+        return new CReservoir<>(capacity, new Random());
+    }
+
+    /**
+     * @param capacity 抽样的个数
+     * @param seed 随机数种子 输入的顺序相同时结果可以重现
+     * @return 蓄水池
+     */
+    public static <T> CReservoir<T> of(int capacity, long seed) {
+        return new CReservoir<>(capacity, new Random(seed));
+    }
+
+    /**
+     * @param capacity 抽样的个数
+     * @param random 随机数
+     * @return 蓄水池
+     */
+    public static <T> CReservoir<T> of(int capacity, Random random) {
+        return new CReservoir<>(capacity, random);
+    }
+
+    /**
+     * 用于Stream的收集器 并行流的每一段单独抽样后合并
+     * 每一段的种子由seed依次生成 只有串行流的结果可以重现
+     * @param capacity 抽样的个数
+     * @param seed 随机数种子
+     * @param <T> 元素类型
+     * @return 收集器 结果是抽到的元素
+     */
+    public static <T> Collector<T, ?, List<T>> collector(int capacity, long seed) {
+        Random seeds = new Random(seed);
+        return Collector.<T, CReservoir<T>, List<T>>of(
+                () -> {
+                    synchronized (seeds) {
+                        return of(capacity, seeds.nextLong());
+                    }
+                },
+                CReservoir::add,
+                CReservoir::merge,
+                CReservoir::getSample,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 等概率抽样
+     */
+    public void add(T item) {
+        add(item, 1.0);
+    }
+
+    /**
+     * 按权重抽样 权重越大越容易被抽到
+     * @param item 元素
+     * @param weight 权重 为0时不会被抽到
+     */
+    public void add(T item, double weight) {
+        if (!(weight >= 0) || Double.isInfinite(weight)) throw new CampanulaRuntimeException("weight must be a non-negative finite number: " + weight);
+        count++;
+        if (weight == 0) return;
+        if (size < capacity) {
+            push(-Math.log(uniform()) / weight, item);
+            if (size == capacity) resetSkip();
+            return;
+        }
+        skip -= weight;
+        if (skip > 0) return;
+        // 已经确定会进入 key按门槛以内的截断指数分布生成
+        double threshold = keys[0];
+        double key = -Math.log1p(-uniform() * -Math.expm1(-weight * threshold)) / weight;
+        replaceTop(Math.min(key, threshold), item);
+        resetSkip();
+    }
+
+    public void addAll(Iterator<? extends T> iterator) {
+        while (iterator.hasNext()) add(iterator.next());
+    }
+
+    public void addAll(Iterable<? extends T> iterable) {
+        addAll(iterable.iterator());
+    }
+
+    /**
+     * 合并另一个蓄水池 保留两者中key最小的capacity个
+     * @param other 另一个蓄水池 不会被修改
+     * @return 当前蓄水池
+     */
+    @SuppressWarnings("unchecked")
+    public CReservoir<T> merge(CReservoir<T> other) {
+        count += other.count;
+        for (int i = 0; i < other.size; i++) {
+            double key = other.keys[i];
+            if (size < capacity) {
+                push(key, (T) other.items[i]);
+            }
+            else if (key < keys[0]) {
+                replaceTop(key, (T) other.items[i]);
+            }
+        }
+        if (size == capacity) resetSkip();
+        return this;
+    }
+
+    /**
+     * @return 抽到的元素 不超过capacity个 顺序没有意义
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getSample() {
+        List<T> sample = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) sample.add((T) items[i]);
+        return sample;
+    }
+
+    /**
+     * @return 遇到的元素个数 包括没有进入蓄水池的
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+        count = 0;
+        skip = 0;
+    }
+
+    /**
+     * (0, 1]
+     */
+    private double uniform() {
+        return 1.0 - random.nextDouble();
+    }
+
+    private void resetSkip() {
+        skip = -Math.log(uniform()) / keys[0];
+    }
+
+    private void push(double key, T item) {
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] >= key) break;
+            keys[i] = keys[parent];
+            items[i] = items[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        items[i] = item;
+    }
+
+    private void replaceTop(double key, T item) {
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] > keys[child]) child++;
+            if (keys[child] <= key) break;
+            keys[i] = keys[child];
+            items[i] = items[child];
+            i = child;
+        }
+        keys[i] = key;
+        items[i] = item;
+    }
+}
@@ -73,4 +73,11 @@ public abstract class AbstractChain<IN, OUT> implements Chain<IN, OUT> {
     protected void setInParam(IN inParam) {
         this.inParam = inParam;
     }
+
+    /**
+     * @return 下一个链 没有时返回空
+     */
+    protected AbstractChain<OUT, ?> getNext() {
+        return this.next;
+    }
 }
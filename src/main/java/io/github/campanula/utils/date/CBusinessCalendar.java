@@ -0,0 +1,273 @@
+package io.github.campanula.utils.date;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 工作日日历
+ * 把 [fromYear, toYear] 内每一天是否为工作日放进一个位图 每64天一个long 另有一个int数组记录每个long之前的工作日数
+ * 判断是否工作日和统计区间内的工作日数是O(1) 加减N个工作日是O(log n)
+ * 拼装完成后不可变 可以被多个线程共用 超出范围的日期抛出DateTimeException
+ */
+public final class CBusinessCalendar {
+
+    private final int fromYear;
+    private final int toYear;
+    private final long firstEpochDay;
+    private final int days;
+
+    /**
+     * 一天一位 1为工作日
+     */
+    private final long[] bits;
+
+    /**
+     * 每个long之前的工作日数 最后多一个元素为总数
+     */
+    private final int[] prefix;
+
+    private CBusinessCalendar(int fromYear, int toYear, Set<DayOfWeek> weekend, Set<LocalDate> holidays, Set<LocalDate> workdays) {
+        this.fromYear = fromYear;
+        this.toYear = toYear;
+        this.firstEpochDay = CDateMath.epochDay(fromYear, 1, 1);
+        this.days = (int) (CDateMath.epochDay(toYear + 1, 1, 1) - firstEpochDay);
+        this.bits = new long[(days + 63) >>> 6];
+        this.prefix = new int[bits.length + 1];
+
+        // 1970-01-01 是星期四
+        int dayOfWeek = (int) Math.floorMod(firstEpochDay + 3, 7L) + 1;
+        for (int i = 0; i < days; i++) {
+            if (!weekend.contains(DayOfWeek.of(dayOfWeek))) bits[i >>> 6] |= 1L << i;
+            dayOfWeek = dayOfWeek == 7 ? 1 : dayOfWeek + 1;
+        }
+        for (LocalDate holiday : holidays) {
+            long index = holiday.toEpochDay() - firstEpochDay;
+            if (index >= 0 && index < days) bits[(int) (index >>> 6)] &= ~(1L << index);
+        }
+        for (LocalDate workday : workdays) {
+            long index = workday.toEpochDay() - firstEpochDay;
+            if (index >= 0 && index < days) bits[(int) (index >>> 6)] |= 1L << index;
+        }
+        for (int i = 0; i < bits.length; i++) {
+            prefix[i + 1] = prefix[i] + Long.bitCount(bits[i]);
+        }
+    }
+
+    public int getFromYear() {
+        return fromYear;
+    }
+
+    public int getToYear() {
+        return toYear;
+    }
+
+    /**
+     * @param date 日期
+     * @return 是否为工作日
+     */
+    public boolean isBusinessDay(LocalDate date) {
+        return isBusinessDay(date.toEpochDay());
+    }
+
+    /**
+     * @param epochDay 距1970-01-01的天数
+     * @return 是否为工作日
+     */
+    public boolean isBusinessDay(long epochDay) {
+        int index = index(epochDay);
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @param table 时区换算表
+     * @return 所在的本地日期是否为工作日
+     */
+    public boolean isBusinessDay(long epochMilli, CZoneTable table) {
+        return isBusinessDay(table.epochDay(epochMilli));
+    }
+
+    /**
+     * @param from 开始日期(包含)
+     * @param to 结束日期(不包含)
+     * @return [from, to) 内的工作日数 from晚于to时为负数
+     */
+    public int businessDaysBetween(LocalDate from, LocalDate to) {
+        return rank(to.toEpochDay()) - rank(from.toEpochDay());
+    }
+
+    /**
+     * 加减工作日 date本身不计算在内
+     * @param date 日期
+     * @param businessDays 工作日数 为正数时向后 为负数时向前 为0时date是工作日返回date 不是工作日返回下一个工作日
+     * @return 结果日期
+     */
+    public LocalDate plusBusinessDays(LocalDate date, int businessDays) {
+        long epochDay = date.toEpochDay();
+        long target;
+        if (businessDays > 0) {
+            target = rank(epochDay + 1) + (long) businessDays - 1;
+        }
+        else if (businessDays < 0) {
+            target = rank(epochDay) + (long) businessDays;
+        }
+        else {
+            target = rank(epochDay);
+        }
+        return LocalDate.ofEpochDay(select(target));
+    }
+
+    /**
+     * @param date 日期
+     * @return date之后的第一个工作日(不包含date)
+     */
+    public LocalDate nextBusinessDay(LocalDate date) {
+        return plusBusinessDays(date, 1);
+    }
+
+    /**
+     * @param date 日期
+     * @return date之前的最后一个工作日(不包含date)
+     */
+    public LocalDate previousBusinessDay(LocalDate date) {
+        return plusBusinessDays(date, -1);
+    }
+
+    /**
+     * @param epochDay 距1970-01-01的天数 可以是范围的结束(toYear的下一年第一天)
+     * @return 范围开始到epochDay(不包含)的工作日数
+     */
+    private int rank(long epochDay) {
+        long offset = epochDay - firstEpochDay;
+        if (offset == days) return prefix[bits.length];
+        int index = index(epochDay);
+        int word = index >>> 6;
+        return prefix[word] + Long.bitCount(bits[word] & ((1L << index) - 1));
+    }
+
+    /**
+     * @param rank 从0开始的第rank个工作日
+     * @return 这个工作日距1970-01-01的天数
+     */
+    private long select(long rank) {
+        if (rank < 0 || rank >= prefix[bits.length]) {
+            throw new DateTimeException("business day out of calendar range [" + fromYear + ", " + toYear + "]");
+        }
+        int low = 0;
+        int high = bits.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (prefix[mid] <= rank) low = mid;
+            else high = mid - 1;
+        }
+        long word = bits[low];
+        for (long i = rank - prefix[low]; i > 0; i--) {
+            word &= word - 1;
+        }
+        return firstEpochDay + ((long) low << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private int index(long epochDay) {
+        long offset = epochDay - firstEpochDay;
+        if (offset < 0 || offset >= days) {
+            throw new DateTimeException("date out of calendar range [" + fromYear + ", " + toYear + "]: " + LocalDate.ofEpochDay(epochDay));
+        }
+        return (int) offset;
+    }
+
+    /**
+     * 工作日日历的初始化以及拼装
+     */
+    public final static class Builder {
+
+        private int fromYear;
+        private int toYear;
+        private Set<DayOfWeek> weekend;
+        private Set<LocalDate> holidays;
+        private Set<LocalDate> workdays;
+
+        private Builder() {
+            this.fromYear = 1970;
+            this.toYear = 2100;
+            this.weekend = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+            this.holidays = new HashSet<>();
+            this.workdays = new HashSet<>();
+        }
+
+        public static Builder aBuilder() {
+            return new Builder();
+        }
+
+        /**
+         * 每一年大约占用50个字节 默认1970-2100
+         * @param fromYear 开始的年份(包含)
+         * @param toYear 结束的年份(包含)
+         * @return 拼装类本身
+         */
+        public Builder range(int fromYear, int toYear) {
+            if (fromYear > toYear) throw new CampanulaRuntimeException("fromYear must not be greater than toYear");
+            this.fromYear = fromYear;
+            this.toYear = toYear;
+            return this;
+        }
+
+        /**
+         * @param weekend 每周的休息日 默认星期六星期日
+         * @return 拼装类本身
+         */
+        public Builder weekend(DayOfWeek... weekend) {
+            this.weekend = EnumSet.noneOf(DayOfWeek.class);
+            for (DayOfWeek dayOfWeek : weekend) this.weekend.add(dayOfWeek);
+            return this;
+        }
+
+        /**
+         * @param holidays 节假日
+         * @return 拼装类本身
+         */
+        public Builder holiday(LocalDate... holidays) {
+            for (LocalDate holiday : holidays) this.holidays.add(holiday);
+            return this;
+        }
+
+        /**
+         * @param holidays 节假日
+         * @return 拼装类本身
+         */
+        public Builder holidays(Collection<LocalDate> holidays) {
+            this.holidays.addAll(holidays);
+            return this;
+        }
+
+        /**
+         * 调休的工作日 优先于weekend和holiday
+         * @param workdays 需要上班的日期
+         * @return 拼装类本身
+         */
+        public Builder workday(LocalDate... workdays) {
+            for (LocalDate workday : workdays) this.workdays.add(workday);
+            return this;
+        }
+
+        /**
+         * 调休的工作日 优先于weekend和holiday
+         * @param workdays 需要上班的日期
+         * @return 拼装类本身
+         */
+        public Builder workdays(Collection<LocalDate> workdays) {
+            this.workdays.addAll(workdays);
+            return this;
+        }
+
+        public CBusinessCalendar getCalendar() {
+            return new CBusinessCalendar(fromYear, toYear, weekend, holidays, workdays);
+        }
+    }
+}
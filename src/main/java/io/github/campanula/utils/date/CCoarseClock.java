@@ -0,0 +1,228 @@
+package io.github.campanula.utils.date;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 粗粒度时钟
+ * 后台线程按固定间隔刷新当前时间 以及当前秒/当天的格式化字符串 dayStart dayEnd
+ * 读取只有一次volatile读 精度等于刷新间隔 适合高频打时间戳的场景
+ * 秒内只刷新毫秒数 跨秒才重新格式化 跨天才重新计算日期相关的值
+ */
+public final class CCoarseClock {
+
+    /**
+     * 当前时刻的快照 不可变
+     */
+    private static final class Snapshot {
+
+        private final long millis;
+        private final long epochSecond;
+        private final LocalDateTime localDateTime;
+        private final String yyyyMMddHHmmss;
+        private final String yyyy_MM_ddHH_mm_ss;
+        private final Day day;
+
+        private Snapshot(long millis, long epochSecond, LocalDateTime localDateTime, String yyyyMMddHHmmss, String yyyy_MM_ddHH_mm_ss, Day day) {
+            this.millis = millis;
+            this.epochSecond = epochSecond;
+            this.localDateTime = localDateTime;
+            this.yyyyMMddHHmmss = yyyyMMddHHmmss;
+            this.yyyy_MM_ddHH_mm_ss = yyyy_MM_ddHH_mm_ss;
+            this.day = day;
+        }
+    }
+
+    /**
+     * 当天的值 跨天时才重新计算
+     */
+    private static final class Day {
+
+        private final LocalDate localDate;
+        private final LocalDateTime dayStart;
+        private final LocalDateTime dayEnd;
+        private final String yyyyMMdd;
+        private final String yyyy_MM_dd;
+
+        private Day(LocalDate localDate) {
+            this.localDate = localDate;
+            this.dayStart = CLocalDateTimeUtil.dayStart(localDate);
+            this.dayEnd = CLocalDateTimeUtil.dayEnd(localDate);
+            this.yyyyMMdd = CDateFormatUtil.yyyyMMdd(localDate);
+            this.yyyy_MM_dd = CDateFormatUtil.yyyy_MM_dd(localDate);
+        }
+    }
+
+    private static volatile CCoarseClock defaultClock;
+
+    private final ZoneId zoneId;
+
+    /**
+     * 是否是共用的时钟 共用的时钟不能停止
+     */
+    private final boolean shared;
+    private final ScheduledExecutorService executor;
+    private final ScheduledFuture<?> future;
+    private volatile Snapshot snapshot;
+
+    private CCoarseClock(ZoneId zoneId, long period, TimeUnit unit, boolean shared) {
+        this.zoneId = zoneId;
+        this.shared = shared;
+        this.snapshot = newSnapshot(System.currentTimeMillis(), null);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "campanula-coarse-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.future = this.executor.scheduleAtFixedRate(this::tick, period, period, unit);
+    }
+
+    /**
+     * 启动一个新的时钟 不用时需要调用stop
+     * @param zoneId 时区
+     * @param period 刷新间隔
+     * @param unit 时间单位
+     * @return 时钟
+     */
+    public static CCoarseClock start(ZoneId zoneId, long period, TimeUnit unit) {
+        if (period <= 0) throw new CampanulaRuntimeException("period must be greater than 0");
+        return new CCoarseClock(zoneId, period, unit, false);
+    }
+
+    /**
+     * 获取共用的时钟 系统默认时区 每毫秒刷新一次 第一次调用时启动 不能停止
+     * @return 时钟
+     */
+    public static CCoarseClock defaultClock() {
+        CCoarseClock clock = defaultClock;
+        if (clock == null) {
+            synchronized (CCoarseClock.class) {
+                clock = defaultClock;
+                if (clock == null) {
+                    clock = new CCoarseClock(ZoneId.systemDefault(), 1, TimeUnit.MILLISECONDS, true);
+                    defaultClock = clock;
+                }
+            }
+        }
+        return clock;
+    }
+
+    /**
+     * 停止后台刷新 之后读到的值不会再变化
+     * @throws CampanulaRuntimeException 停止共用的时钟时 其他使用者读到的时间会停住
+     */
+    public void stop() {
+        if (this.shared) throw new CampanulaRuntimeException("the default clock is shared and cannot be stopped");
+        this.future.cancel(false);
+        this.executor.shutdown();
+    }
+
+    private void tick() {
+        // 抛出异常会使scheduleAtFixedRate不再执行 时间会停住 所以本次出错时保留上一次的值
+        try {
+            refresh();
+        }
+        catch (Throwable e) {
+            Thread thread = Thread.currentThread();
+            Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+            if (handler != null) handler.uncaughtException(thread, e);
+        }
+    }
+
+    private void refresh() {
+        long millis = System.currentTimeMillis();
+        Snapshot current = this.snapshot;
+        if (Math.floorDiv(millis, 1000L) == current.epochSecond) {
+            if (millis != current.millis) {
+                this.snapshot = new Snapshot(millis, current.epochSecond, current.localDateTime, current.yyyyMMddHHmmss, current.yyyy_MM_ddHH_mm_ss, current.day);
+            }
+            return;
+        }
+        this.snapshot = newSnapshot(millis, current.day);
+    }
+
+    private Snapshot newSnapshot(long millis, Day day) {
+        long epochSecond = Math.floorDiv(millis, 1000L);
+        LocalDateTime localDateTime = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zoneId);
+        if (day == null || !day.localDate.equals(localDateTime.toLocalDate())) {
+            day = new Day(localDateTime.toLocalDate());
+        }
+        return new Snapshot(millis, epochSecond, localDateTime,
+                CDateFormatUtil.yyyyMMddHHmmss(localDateTime), CDateFormatUtil.yyyy_MM_ddHH_mm_ss(localDateTime), day);
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    /**
+     * @return 当前毫秒时间戳
+     */
+    public long millis() {
+        return snapshot.millis;
+    }
+
+    /**
+     * @return 当前时间 精确到秒
+     */
+    public LocalDateTime localDateTime() {
+        return snapshot.localDateTime;
+    }
+
+    /**
+     * @return 今天
+     */
+    public LocalDate localDate() {
+        return snapshot.day.localDate;
+    }
+
+    /**
+     * @return 今天的零点 00:00
+     */
+    public LocalDateTime dayStart() {
+        return snapshot.day.dayStart;
+    }
+
+    /**
+     * @return 今天的最后时间 '23:59:59.999999999'
+     */
+    public LocalDateTime dayEnd() {
+        return snapshot.day.dayEnd;
+    }
+
+    /**
+     * @return 当前时间 格式为 yyyyMMddHHmmss 的字符串
+     */
+    public String yyyyMMddHHmmss() {
+        return snapshot.yyyyMMddHHmmss;
+    }
+
+    /**
+     * @return 当前时间 格式为 yyyy-MM-dd HH:mm:ss 的字符串
+     */
+    public String yyyy_MM_ddHH_mm_ss() {
+        return snapshot.yyyy_MM_ddHH_mm_ss;
+    }
+
+    /**
+     * @return 今天 格式为 yyyyMMdd 的字符串
+     */
+    public String yyyyMMdd() {
+        return snapshot.day.yyyyMMdd;
+    }
+
+    /**
+     * @return 今天 格式为 yyyy-MM-dd 的字符串
+     */
+    public String yyyy_MM_dd() {
+        return snapshot.day.yyyy_MM_dd;
+    }
+}
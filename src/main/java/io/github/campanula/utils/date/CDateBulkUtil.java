@@ -0,0 +1,222 @@
+package io.github.campanula.utils.date;
+
+import java.time.DateTimeException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 按列批量转换毫秒时间戳 用于分析场景整列处理
+ * 基于CZoneTable 不创建LocalDate等中间对象 相邻时间戳落在同一天时直接复用上一次的结果
+ * 带parallel参数的方法会按块拆分到ForkJoinPool.commonPool()并行执行
+ */
+public final class CDateBulkUtil {
+
+    /**
+     * 并行时每一块的最小数据量
+     */
+    private static final int CHUNK = 8192;
+
+    /**
+     * @param epochMillis 毫秒时间戳
+     * @param table 时区换算表
+     * @return 每个时间戳所在的本地日期 年*10000 + 月*100 + 日 例如 20191214
+     */
+    public static int[] dayKeys(long[] epochMillis, CZoneTable table) {
+        return dayKeys(epochMillis, table, false);
+    }
+
+    /**
+     * @param epochMillis 毫秒时间戳
+     * @param table 时区换算表
+     * @param parallel 是否并行
+     * @return 每个时间戳所在的本地日期 年*10000 + 月*100 + 日 例如 20191214
+     */
+    public static int[] dayKeys(long[] epochMillis, CZoneTable table, boolean parallel) {
+        int[] out = new int[epochMillis.length];
+        run(epochMillis.length, parallel, (from, to) -> dayKeys(epochMillis, from, to, out, from, table));
+        return out;
+    }
+
+    /**
+     * 把 [from, to) 内每个时间戳所在的本地日期写入out
+     * @param epochMillis 毫秒时间戳
+     * @param from 开始下标(包含)
+     * @param to 结束下标(不包含)
+     * @param out 写入的数组
+     * @param outOffset 开始写入的下标
+     * @param table 时区换算表
+     */
+    public static void dayKeys(long[] epochMillis, int from, int to, int[] out, int outOffset, CZoneTable table) {
+        long dayStart = 1;
+        long nextDayStart = 0;
+        int key = 0;
+        for (int i = from; i < to; i++) {
+            long millis = epochMillis[i];
+            if (millis < dayStart || millis >= nextDayStart) {
+                dayStart = table.dayStart(millis);
+                nextDayStart = table.dayEnd(millis) + 1;
+                key = table.dayKey(millis);
+            }
+            out[outOffset++] = key;
+        }
+    }
+
+    /**
+     * @param epochMillis 毫秒时间戳
+     * @param table 时区换算表
+     * @return 每个时间戳所在本地日期开始时刻的毫秒时间戳
+     */
+    public static long[] dayStarts(long[] epochMillis, CZoneTable table) {
+        return dayStarts(epochMillis, table, false);
+    }
+
+    /**
+     * @param epochMillis 毫秒时间戳
+     * @param table 时区换算表
+     * @param parallel 是否并行
+     * @return 每个时间戳所在本地日期开始时刻的毫秒时间戳
+     */
+    public static long[] dayStarts(long[] epochMillis, CZoneTable table, boolean parallel) {
+        long[] out = new long[epochMillis.length];
+        run(epochMillis.length, parallel, (from, to) -> dayStarts(epochMillis, from, to, out, from, table));
+        return out;
+    }
+
+    /**
+     * 把 [from, to) 内每个时间戳所在本地日期开始时刻写入out
+     * @param epochMillis 毫秒时间戳
+     * @param from 开始下标(包含)
+     * @param to 结束下标(不包含)
+     * @param out 写入的数组
+     * @param outOffset 开始写入的下标
+     * @param table 时区换算表
+     */
+    public static void dayStarts(long[] epochMillis, int from, int to, long[] out, int outOffset, CZoneTable table) {
+        long dayStart = 1;
+        long nextDayStart = 0;
+        for (int i = from; i < to; i++) {
+            long millis = epochMillis[i];
+            if (millis < dayStart || millis >= nextDayStart) {
+                dayStart = table.dayStart(millis);
+                nextDayStart = table.dayEnd(millis) + 1;
+            }
+            out[outOffset++] = dayStart;
+        }
+    }
+
+    /**
+     * @param epochMillis 毫秒时间戳
+     * @param table 时区换算表
+     * @return 每个时间戳格式化为 yyyyMMdd 的ASCII字节 每8个字节一条 依次排列
+     */
+    public static byte[] yyyyMMdd(long[] epochMillis, CZoneTable table) {
+        return yyyyMMdd(epochMillis, table, false);
+    }
+
+    /**
+     * @param epochMillis 毫秒时间戳
+     * @param table 时区换算表
+     * @param parallel 是否并行
+     * @return 每个时间戳格式化为 yyyyMMdd 的ASCII字节 每8个字节一条 依次排列
+     */
+    public static byte[] yyyyMMdd(long[] epochMillis, CZoneTable table, boolean parallel) {
+        byte[] out = new byte[epochMillis.length * CDateFormatUtil.YYYYMMDD_LENGTH];
+        run(epochMillis.length, parallel, (from, to) -> yyyyMMdd(epochMillis, from, to, out, from * CDateFormatUtil.YYYYMMDD_LENGTH, table));
+        return out;
+    }
+
+    /**
+     * 把 [from, to) 内每个时间戳格式化为 yyyyMMdd 写入out 每条8个字节
+     * @param epochMillis 毫秒时间戳
+     * @param from 开始下标(包含)
+     * @param to 结束下标(不包含)
+     * @param out 写入的数组
+     * @param outOffset 开始写入的下标
+     * @param table 时区换算表
+     * @return 写入后的下一个下标
+     */
+    public static int yyyyMMdd(long[] epochMillis, int from, int to, byte[] out, int outOffset, CZoneTable table) {
+        return format(epochMillis, from, to, out, outOffset, table, false);
+    }
+
+    /**
+     * @param epochMillis 毫秒时间戳
+     * @param table 时区换算表
+     * @return 每个时间戳格式化为 yyyy-MM-dd 的ASCII字节 每10个字节一条 依次排列
+     */
+    public static byte[] yyyy_MM_dd(long[] epochMillis, CZoneTable table) {
+        return yyyy_MM_dd(epochMillis, table, false);
+    }
+
+    /**
+     * @param epochMillis 毫秒时间戳
+     * @param table 时区换算表
+     * @param parallel 是否并行
+     * @return 每个时间戳格式化为 yyyy-MM-dd 的ASCII字节 每10个字节一条 依次排列
+     */
+    public static byte[] yyyy_MM_dd(long[] epochMillis, CZoneTable table, boolean parallel) {
+        byte[] out = new byte[epochMillis.length * CDateFormatUtil.YYYY_MM_DD_LENGTH];
+        run(epochMillis.length, parallel, (from, to) -> yyyy_MM_dd(epochMillis, from, to, out, from * CDateFormatUtil.YYYY_MM_DD_LENGTH, table));
+        return out;
+    }
+
+    /**
+     * 把 [from, to) 内每个时间戳格式化为 yyyy-MM-dd 写入out 每条10个字节
+     * @param epochMillis 毫秒时间戳
+     * @param from 开始下标(包含)
+     * @param to 结束下标(不包含)
+     * @param out 写入的数组
+     * @param outOffset 开始写入的下标
+     * @param table 时区换算表
+     * @return 写入后的下一个下标
+     */
+    public static int yyyy_MM_dd(long[] epochMillis, int from, int to, byte[] out, int outOffset, CZoneTable table) {
+        return format(epochMillis, from, to, out, outOffset, table, true);
+    }
+
+    private static int format(long[] epochMillis, int from, int to, byte[] out, int outOffset, CZoneTable table, boolean separator) {
+        long dayStart = 1;
+        long nextDayStart = 0;
+        int key = 0;
+        for (int i = from; i < to; i++) {
+            long millis = epochMillis[i];
+            if (millis < dayStart || millis >= nextDayStart) {
+                dayStart = table.dayStart(millis);
+                nextDayStart = table.dayEnd(millis) + 1;
+                key = table.dayKey(millis);
+                if (key < 10101 || key > 99991231) throw new DateTimeException("year out of fixed width range [1, 9999]: " + key / 10000);
+            }
+            int year = key / 10000;
+            int monthDay = key % 10000;
+            out[outOffset++] = (byte) ('0' + year / 1000);
+            out[outOffset++] = (byte) ('0' + year / 100 % 10);
+            out[outOffset++] = (byte) ('0' + year / 10 % 10);
+            out[outOffset++] = (byte) ('0' + year % 10);
+            if (separator) out[outOffset++] = '-';
+            out[outOffset++] = (byte) ('0' + monthDay / 1000);
+            out[outOffset++] = (byte) ('0' + monthDay / 100 % 10);
+            if (separator) out[outOffset++] = '-';
+            out[outOffset++] = (byte) ('0' + monthDay / 10 % 10);
+            out[outOffset++] = (byte) ('0' + monthDay % 10);
+        }
+        return outOffset;
+    }
+
+    private static void run(int length, boolean parallel, RangeAction action) {
+        if (!parallel || length <= CHUNK) {
+            action.apply(0, length);
+            return;
+        }
+        int chunk = Math.max(CHUNK, length / (ForkJoinPool.getCommonPoolParallelism() * 4 + 1));
+        int chunks = (length + chunk - 1) / chunk;
+        IntStream.range(0, chunks).parallel().forEach(c -> action.apply(c * chunk, Math.min(c * chunk + chunk, length)));
+    }
+
+    /**
+     * 处理 [from, to) 下标区间
+     */
+    @FunctionalInterface
+    private interface RangeAction {
+        void apply(int from, int to);
+    }
+}
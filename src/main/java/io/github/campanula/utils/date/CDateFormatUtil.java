@@ -0,0 +1,332 @@
+package io.github.campanula.utils.date;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 日期格式化
+ * DateTimeFormatter按pattern缓存 只会解析一次 最多缓存256个
+ * yyyyMMddHHmmss yyyy-MM-dd HH:mm:ss yyyyMMdd yyyy-MM-dd 这几种定长格式直接按位写入char[] 不经过DateTimeFormatter
+ * 写入char[]的方法不会创建任何对象 年份不在 [1, 9999] 时 返回String和StringBuilder的方法回退到DateTimeFormatter 写入char[]的方法抛出DateTimeException
+ * 直接传入年月日时分秒写入char[]的方法会检查每一项的范围 超出时抛出DateTimeException
+ */
+public final class CDateFormatUtil {
+
+    /**
+     * yyyyMMddHHmmss 的长度
+     */
+    public static final int YYYYMMDDHHMMSS_LENGTH = 14;
+
+    /**
+     * yyyy-MM-dd HH:mm:ss 的长度
+     */
+    public static final int YYYY_MM_DDHH_MM_SS_LENGTH = 19;
+
+    /**
+     * yyyyMMdd 的长度
+     */
+    public static final int YYYYMMDD_LENGTH = 8;
+
+    /**
+     * yyyy-MM-dd 的长度
+     */
+    public static final int YYYY_MM_DD_LENGTH = 10;
+
+    /**
+     * 最多缓存的pattern个数
+     */
+    private static final int MAX_FORMATTERS = 256;
+
+    private static final ConcurrentHashMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    /**
+     * 获取缓存的DateTimeFormatter 同一个pattern只会创建一次
+     * pattern应该是常量 缓存满256个以后 新的pattern每次都重新创建 不再缓存
+     * @param pattern 格式
+     * @return DateTimeFormatter
+     */
+    public static DateTimeFormatter ofPattern(String pattern) {
+        DateTimeFormatter formatter = FORMATTERS.get(pattern);
+        if (formatter != null) return formatter;
+        if (FORMATTERS.size() >= MAX_FORMATTERS) return DateTimeFormatter.ofPattern(pattern);
+        return FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+    }
+
+    /**
+     * @param date 指定的时间
+     * @return 格式为 yyyyMMddHHmmss 的字符串
+     */
+    public static String yyyyMMddHHmmss(LocalDateTime date) {
+        if (!fixedWidth(date.getYear())) return date.format(ofPattern("yyyyMMddHHmmss"));
+        char[] buffer = new char[YYYYMMDDHHMMSS_LENGTH];
+        yyyyMMddHHmmss(date, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * 把 yyyyMMddHHmmss 写入buffer
+     * @param date 指定的时间
+     * @param buffer 写入的数组 从offset开始至少要有14位
+     * @param offset 开始写入的下标
+     * @return 写入后的下一个下标
+     */
+    public static int yyyyMMddHHmmss(LocalDateTime date, char[] buffer, int offset) {
+        return yyyyMMddHHmmss(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), date.getHour(), date.getMinute(), date.getSecond(), buffer, offset);
+    }
+
+    /**
+     * 把 yyyyMMddHHmmss 写入buffer
+     * @param year 年 [1, 9999]
+     * @param month 月 [1, 12]
+     * @param day 日 不能超过当月的天数
+     * @param hour 时 [0, 23]
+     * @param minute 分 [0, 59]
+     * @param second 秒 [0, 59]
+     * @param buffer 写入的数组 从offset开始至少要有14位
+     * @param offset 开始写入的下标
+     * @return 写入后的下一个下标
+     * @throws DateTimeException 年月日时分秒超出范围
+     */
+    public static int yyyyMMddHHmmss(int year, int month, int day, int hour, int minute, int second, char[] buffer, int offset) {
+        checkDate(year, month, day);
+        checkTime(hour, minute, second);
+        offset = write4(year, buffer, offset);
+        offset = write2(month, buffer, offset);
+        offset = write2(day, buffer, offset);
+        offset = write2(hour, buffer, offset);
+        offset = write2(minute, buffer, offset);
+        return write2(second, buffer, offset);
+    }
+
+    /**
+     * 把 yyyyMMddHHmmss 追加到builder
+     * @param date 指定的时间
+     * @param builder 要追加的StringBuilder
+     * @return 传入的builder
+     */
+    public static StringBuilder yyyyMMddHHmmss(LocalDateTime date, StringBuilder builder) {
+        if (!fixedWidth(date.getYear())) return builder.append(date.format(ofPattern("yyyyMMddHHmmss")));
+        append4(date.getYear(), builder);
+        append2(date.getMonthValue(), builder);
+        append2(date.getDayOfMonth(), builder);
+        append2(date.getHour(), builder);
+        append2(date.getMinute(), builder);
+        return append2(date.getSecond(), builder);
+    }
+
+    /**
+     * @param date 指定的时间
+     * @return 格式为 yyyy-MM-dd HH:mm:ss 的字符串
+     */
+    public static String yyyy_MM_ddHH_mm_ss(LocalDateTime date) {
+        if (!fixedWidth(date.getYear())) return date.format(ofPattern("yyyy-MM-dd HH:mm:ss"));
+        char[] buffer = new char[YYYY_MM_DDHH_MM_SS_LENGTH];
+        yyyy_MM_ddHH_mm_ss(date, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * 把 yyyy-MM-dd HH:mm:ss 写入buffer
+     * @param date 指定的时间
+     * @param buffer 写入的数组 从offset开始至少要有19位
+     * @param offset 开始写入的下标
+     * @return 写入后的下一个下标
+     */
+    public static int yyyy_MM_ddHH_mm_ss(LocalDateTime date, char[] buffer, int offset) {
+        return yyyy_MM_ddHH_mm_ss(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), date.getHour(), date.getMinute(), date.getSecond(), buffer, offset);
+    }
+
+    /**
+     * 把 yyyy-MM-dd HH:mm:ss 写入buffer
+     * @param year 年 [1, 9999]
+     * @param month 月 [1, 12]
+     * @param day 日 不能超过当月的天数
+     * @param hour 时 [0, 23]
+     * @param minute 分 [0, 59]
+     * @param second 秒 [0, 59]
+     * @param buffer 写入的数组 从offset开始至少要有19位
+     * @param offset 开始写入的下标
+     * @return 写入后的下一个下标
+     * @throws DateTimeException 年月日时分秒超出范围
+     */
+    public static int yyyy_MM_ddHH_mm_ss(int year, int month, int day, int hour, int minute, int second, char[] buffer, int offset) {
+        checkTime(hour, minute, second);
+        offset = yyyy_MM_dd(year, month, day, buffer, offset);
+        buffer[offset++] = ' ';
+        offset = write2(hour, buffer, offset);
+        buffer[offset++] = ':';
+        offset = write2(minute, buffer, offset);
+        buffer[offset++] = ':';
+        return write2(second, buffer, offset);
+    }
+
+    /**
+     * 把 yyyy-MM-dd HH:mm:ss 追加到builder
+     * @param date 指定的时间
+     * @param builder 要追加的StringBuilder
+     * @return 传入的builder
+     */
+    public static StringBuilder yyyy_MM_ddHH_mm_ss(LocalDateTime date, StringBuilder builder) {
+        if (!fixedWidth(date.getYear())) return builder.append(date.format(ofPattern("yyyy-MM-dd HH:mm:ss")));
+        append4(date.getYear(), builder).append('-');
+        append2(date.getMonthValue(), builder).append('-');
+        append2(date.getDayOfMonth(), builder).append(' ');
+        append2(date.getHour(), builder).append(':');
+        append2(date.getMinute(), builder).append(':');
+        return append2(date.getSecond(), builder);
+    }
+
+    /**
+     * @param date 指定的日期
+     * @return 格式为 yyyyMMdd 的字符串
+     */
+    public static String yyyyMMdd(LocalDate date) {
+        if (!fixedWidth(date.getYear())) return date.format(ofPattern("yyyyMMdd"));
+        char[] buffer = new char[YYYYMMDD_LENGTH];
+        yyyyMMdd(date, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * 把 yyyyMMdd 写入buffer
+     * @param date 指定的日期
+     * @param buffer 写入的数组 从offset开始至少要有8位
+     * @param offset 开始写入的下标
+     * @return 写入后的下一个下标
+     */
+    public static int yyyyMMdd(LocalDate date, char[] buffer, int offset) {
+        return yyyyMMdd(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), buffer, offset);
+    }
+
+    /**
+     * 把 yyyyMMdd 写入buffer
+     * @param year 年 [1, 9999]
+     * @param month 月 [1, 12]
+     * @param day 日 不能超过当月的天数
+     * @param buffer 写入的数组 从offset开始至少要有8位
+     * @param offset 开始写入的下标
+     * @return 写入后的下一个下标
+     * @throws DateTimeException 年月日时分秒超出范围
+     */
+    public static int yyyyMMdd(int year, int month, int day, char[] buffer, int offset) {
+        checkDate(year, month, day);
+        offset = write4(year, buffer, offset);
+        offset = write2(month, buffer, offset);
+        return write2(day, buffer, offset);
+    }
+
+    /**
+     * 把 yyyyMMdd 追加到builder
+     * @param date 指定的日期
+     * @param builder 要追加的StringBuilder
+     * @return 传入的builder
+     */
+    public static StringBuilder yyyyMMdd(LocalDate date, StringBuilder builder) {
+        if (!fixedWidth(date.getYear())) return builder.append(date.format(ofPattern("yyyyMMdd")));
+        append4(date.getYear(), builder);
+        append2(date.getMonthValue(), builder);
+        return append2(date.getDayOfMonth(), builder);
+    }
+
+    /**
+     * @param date 指定的日期
+     * @return 格式为 yyyy-MM-dd 的字符串
+     */
+    public static String yyyy_MM_dd(LocalDate date) {
+        if (!fixedWidth(date.getYear())) return date.format(ofPattern("yyyy-MM-dd"));
+        char[] buffer = new char[YYYY_MM_DD_LENGTH];
+        yyyy_MM_dd(date, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * 把 yyyy-MM-dd 写入buffer
+     * @param date 指定的日期
+     * @param buffer 写入的数组 从offset开始至少要有10位
+     * @param offset 开始写入的下标
+     * @return 写入后的下一个下标
+     */
+    public static int yyyy_MM_dd(LocalDate date, char[] buffer, int offset) {
+        return yyyy_MM_dd(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), buffer, offset);
+    }
+
+    /**
+     * 把 yyyy-MM-dd 写入buffer
+     * @param year 年 [1, 9999]
+     * @param month 月 [1, 12]
+     * @param day 日 不能超过当月的天数
+     * @param buffer 写入的数组 从offset开始至少要有10位
+     * @param offset 开始写入的下标
+     * @return 写入后的下一个下标
+     * @throws DateTimeException 年月日时分秒超出范围
+     */
+    public static int yyyy_MM_dd(int year, int month, int day, char[] buffer, int offset) {
+        checkDate(year, month, day);
+        offset = write4(year, buffer, offset);
+        buffer[offset++] = '-';
+        offset = write2(month, buffer, offset);
+        buffer[offset++] = '-';
+        return write2(day, buffer, offset);
+    }
+
+    /**
+     * 把 yyyy-MM-dd 追加到builder
+     * @param date 指定的日期
+     * @param builder 要追加的StringBuilder
+     * @return 传入的builder
+     */
+    public static StringBuilder yyyy_MM_dd(LocalDate date, StringBuilder builder) {
+        if (!fixedWidth(date.getYear())) return builder.append(date.format(ofPattern("yyyy-MM-dd")));
+        append4(date.getYear(), builder).append('-');
+        append2(date.getMonthValue(), builder).append('-');
+        return append2(date.getDayOfMonth(), builder);
+    }
+
+    private static boolean fixedWidth(int year) {
+        return year >= 1 && year <= 9999;
+    }
+
+    private static void checkDate(int year, int month, int day) {
+        if (!fixedWidth(year)) throw new DateTimeException("year out of fixed width range [1, 9999]: " + year);
+        if (month < 1 || month > 12) throw new DateTimeException("month out of range [1, 12]: " + month);
+        if (day < 1 || day > 28 && day > Month.of(month).length(Year.isLeap(year))) {
+            throw new DateTimeException("day out of range for " + year + "-" + month + ": " + day);
+        }
+    }
+
+    private static void checkTime(int hour, int minute, int second) {
+        if (hour < 0 || hour > 23) throw new DateTimeException("hour out of range [0, 23]: " + hour);
+        if (minute < 0 || minute > 59) throw new DateTimeException("minute out of range [0, 59]: " + minute);
+        if (second < 0 || second > 59) throw new DateTimeException("second out of range [0, 59]: " + second);
+    }
+
+    private static int write4(int value, char[] buffer, int offset) {
+        buffer[offset] = (char) ('0' + value / 1000);
+        buffer[offset + 1] = (char) ('0' + value / 100 % 10);
+        buffer[offset + 2] = (char) ('0' + value / 10 % 10);
+        buffer[offset + 3] = (char) ('0' + value % 10);
+        return offset + 4;
+    }
+
+    private static int write2(int value, char[] buffer, int offset) {
+        buffer[offset] = (char) ('0' + value / 10);
+        buffer[offset + 1] = (char) ('0' + value % 10);
+        return offset + 2;
+    }
+
+    private static StringBuilder append4(int value, StringBuilder builder) {
+        return builder.append((char) ('0' + value / 1000))
+                .append((char) ('0' + value / 100 % 10))
+                .append((char) ('0' + value / 10 % 10))
+                .append((char) ('0' + value % 10));
+    }
+
+    private static StringBuilder append2(int value, StringBuilder builder) {
+        return builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
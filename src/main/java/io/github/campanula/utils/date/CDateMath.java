@@ -0,0 +1,68 @@
+package io.github.campanula.utils.date;
+
+/**
+ * 公历日期与epoch day之间的纯算术换算 不创建任何对象
+ * 算法来自 Howard Hinnant 的 days_from_civil / civil_from_days
+ */
+final class CDateMath {
+
+    static final long SECONDS_PER_DAY = 86400L;
+    static final long MILLIS_PER_DAY = 86400000L;
+
+    private CDateMath() {}
+
+    /**
+     * @param year 年
+     * @param month 月 [1, 12]
+     * @param day 日 [1, 31]
+     * @return 距1970-01-01的天数
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400L);
+        long yoe = y - era * 400;
+        long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * @param epochDay 距1970-01-01的天数
+     * @return 年*10000 + 月*100 + 日 例如 20191214
+     */
+    static int dayKey(long epochDay) {
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097L);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long day = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 10000 + month * 100 + day);
+    }
+
+    /**
+     * @param year 年
+     * @param month 月 [1, 12]
+     * @return 这个月的天数
+     */
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+}
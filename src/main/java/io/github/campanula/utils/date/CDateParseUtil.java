@@ -0,0 +1,332 @@
+package io.github.campanula.utils.date;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.zone.ZoneRules;
+
+/**
+ * 日期解析 与CDateFormatUtil的定长格式对应
+ * 直接从CharSequence byte[] ByteBuffer的指定下标按位解析 不经过DateTimeFormatter 解析过程不创建任何对象
+ * 日期时间解析为不带时区的本地秒数 日期解析为epoch day 需要对象时再用toLocalDateTime/toLocalDate转换
+ */
+public final class CDateParseUtil {
+
+    private static final int YYYYMMDDHHMMSS_LENGTH = CDateFormatUtil.YYYYMMDDHHMMSS_LENGTH;
+    private static final int YYYY_MM_DDHH_MM_SS_LENGTH = CDateFormatUtil.YYYY_MM_DDHH_MM_SS_LENGTH;
+    private static final int YYYYMMDD_LENGTH = CDateFormatUtil.YYYYMMDD_LENGTH;
+    private static final int YYYY_MM_DD_LENGTH = CDateFormatUtil.YYYY_MM_DD_LENGTH;
+
+    /**
+     * 数值不合法的标识
+     */
+    private static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * 解析 yyyyMMddHHmmss
+     * @param text 要解析的字符
+     * @param offset 开始解析的下标
+     * @return 不带时区的本地秒数(距1970-01-01T00:00:00的秒数) 可以用toLocalDateTime/toEpochMilli转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyyMMddHHmmss(CharSequence text, int offset) {
+        checkLength(text.length(), offset, YYYYMMDDHHMMSS_LENGTH, text);
+        long value = localSeconds(num4(text, offset), num2(text, offset + 4), num2(text, offset + 6), num2(text, offset + 8), num2(text, offset + 10), num2(text, offset + 12));
+        if (value == INVALID) throw error(text, offset, YYYYMMDDHHMMSS_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyyMMddHHmmss
+     * @param bytes 要解析的ASCII字节
+     * @param offset 开始解析的下标
+     * @return 不带时区的本地秒数(距1970-01-01T00:00:00的秒数) 可以用toLocalDateTime/toEpochMilli转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyyMMddHHmmss(byte[] bytes, int offset) {
+        checkLength(bytes.length, offset, YYYYMMDDHHMMSS_LENGTH, bytes);
+        long value = localSeconds(num4(bytes, offset), num2(bytes, offset + 4), num2(bytes, offset + 6), num2(bytes, offset + 8), num2(bytes, offset + 10), num2(bytes, offset + 12));
+        if (value == INVALID) throw error(bytes, offset, YYYYMMDDHHMMSS_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyyMMddHHmmss
+     * @param buffer 要解析的ASCII字节 按下标读取 不会改变position
+     * @param offset 开始解析的下标
+     * @return 不带时区的本地秒数(距1970-01-01T00:00:00的秒数) 可以用toLocalDateTime/toEpochMilli转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyyMMddHHmmss(ByteBuffer buffer, int offset) {
+        checkLength(buffer.limit(), offset, YYYYMMDDHHMMSS_LENGTH, buffer);
+        long value = localSeconds(num4(buffer, offset), num2(buffer, offset + 4), num2(buffer, offset + 6), num2(buffer, offset + 8), num2(buffer, offset + 10), num2(buffer, offset + 12));
+        if (value == INVALID) throw error(buffer, offset, YYYYMMDDHHMMSS_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyy-MM-dd HH:mm:ss
+     * @param text 要解析的字符
+     * @param offset 开始解析的下标
+     * @return 不带时区的本地秒数(距1970-01-01T00:00:00的秒数) 可以用toLocalDateTime/toEpochMilli转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyy_MM_ddHH_mm_ss(CharSequence text, int offset) {
+        checkLength(text.length(), offset, YYYY_MM_DDHH_MM_SS_LENGTH, text);
+        if (text.charAt(offset + 4) != '-' || text.charAt(offset + 7) != '-' || text.charAt(offset + 10) != ' ' || text.charAt(offset + 13) != ':' || text.charAt(offset + 16) != ':') throw error(text, offset, YYYY_MM_DDHH_MM_SS_LENGTH);
+        long value = localSeconds(num4(text, offset), num2(text, offset + 5), num2(text, offset + 8), num2(text, offset + 11), num2(text, offset + 14), num2(text, offset + 17));
+        if (value == INVALID) throw error(text, offset, YYYY_MM_DDHH_MM_SS_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyy-MM-dd HH:mm:ss
+     * @param bytes 要解析的ASCII字节
+     * @param offset 开始解析的下标
+     * @return 不带时区的本地秒数(距1970-01-01T00:00:00的秒数) 可以用toLocalDateTime/toEpochMilli转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyy_MM_ddHH_mm_ss(byte[] bytes, int offset) {
+        checkLength(bytes.length, offset, YYYY_MM_DDHH_MM_SS_LENGTH, bytes);
+        if (bytes[offset + 4] != '-' || bytes[offset + 7] != '-' || bytes[offset + 10] != ' ' || bytes[offset + 13] != ':' || bytes[offset + 16] != ':') throw error(bytes, offset, YYYY_MM_DDHH_MM_SS_LENGTH);
+        long value = localSeconds(num4(bytes, offset), num2(bytes, offset + 5), num2(bytes, offset + 8), num2(bytes, offset + 11), num2(bytes, offset + 14), num2(bytes, offset + 17));
+        if (value == INVALID) throw error(bytes, offset, YYYY_MM_DDHH_MM_SS_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyy-MM-dd HH:mm:ss
+     * @param buffer 要解析的ASCII字节 按下标读取 不会改变position
+     * @param offset 开始解析的下标
+     * @return 不带时区的本地秒数(距1970-01-01T00:00:00的秒数) 可以用toLocalDateTime/toEpochMilli转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyy_MM_ddHH_mm_ss(ByteBuffer buffer, int offset) {
+        checkLength(buffer.limit(), offset, YYYY_MM_DDHH_MM_SS_LENGTH, buffer);
+        if (buffer.get(offset + 4) != '-' || buffer.get(offset + 7) != '-' || buffer.get(offset + 10) != ' ' || buffer.get(offset + 13) != ':' || buffer.get(offset + 16) != ':') throw error(buffer, offset, YYYY_MM_DDHH_MM_SS_LENGTH);
+        long value = localSeconds(num4(buffer, offset), num2(buffer, offset + 5), num2(buffer, offset + 8), num2(buffer, offset + 11), num2(buffer, offset + 14), num2(buffer, offset + 17));
+        if (value == INVALID) throw error(buffer, offset, YYYY_MM_DDHH_MM_SS_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyyMMdd
+     * @param text 要解析的字符
+     * @param offset 开始解析的下标
+     * @return 距1970-01-01的天数 可以用toLocalDate转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyyMMdd(CharSequence text, int offset) {
+        checkLength(text.length(), offset, YYYYMMDD_LENGTH, text);
+        long value = epochDay(num4(text, offset), num2(text, offset + 4), num2(text, offset + 6));
+        if (value == INVALID) throw error(text, offset, YYYYMMDD_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyyMMdd
+     * @param bytes 要解析的ASCII字节
+     * @param offset 开始解析的下标
+     * @return 距1970-01-01的天数 可以用toLocalDate转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyyMMdd(byte[] bytes, int offset) {
+        checkLength(bytes.length, offset, YYYYMMDD_LENGTH, bytes);
+        long value = epochDay(num4(bytes, offset), num2(bytes, offset + 4), num2(bytes, offset + 6));
+        if (value == INVALID) throw error(bytes, offset, YYYYMMDD_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyyMMdd
+     * @param buffer 要解析的ASCII字节 按下标读取 不会改变position
+     * @param offset 开始解析的下标
+     * @return 距1970-01-01的天数 可以用toLocalDate转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyyMMdd(ByteBuffer buffer, int offset) {
+        checkLength(buffer.limit(), offset, YYYYMMDD_LENGTH, buffer);
+        long value = epochDay(num4(buffer, offset), num2(buffer, offset + 4), num2(buffer, offset + 6));
+        if (value == INVALID) throw error(buffer, offset, YYYYMMDD_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyy-MM-dd
+     * @param text 要解析的字符
+     * @param offset 开始解析的下标
+     * @return 距1970-01-01的天数 可以用toLocalDate转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyy_MM_dd(CharSequence text, int offset) {
+        checkLength(text.length(), offset, YYYY_MM_DD_LENGTH, text);
+        if (text.charAt(offset + 4) != '-' || text.charAt(offset + 7) != '-') throw error(text, offset, YYYY_MM_DD_LENGTH);
+        long value = epochDay(num4(text, offset), num2(text, offset + 5), num2(text, offset + 8));
+        if (value == INVALID) throw error(text, offset, YYYY_MM_DD_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyy-MM-dd
+     * @param bytes 要解析的ASCII字节
+     * @param offset 开始解析的下标
+     * @return 距1970-01-01的天数 可以用toLocalDate转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyy_MM_dd(byte[] bytes, int offset) {
+        checkLength(bytes.length, offset, YYYY_MM_DD_LENGTH, bytes);
+        if (bytes[offset + 4] != '-' || bytes[offset + 7] != '-') throw error(bytes, offset, YYYY_MM_DD_LENGTH);
+        long value = epochDay(num4(bytes, offset), num2(bytes, offset + 5), num2(bytes, offset + 8));
+        if (value == INVALID) throw error(bytes, offset, YYYY_MM_DD_LENGTH);
+        return value;
+    }
+
+    /**
+     * 解析 yyyy-MM-dd
+     * @param buffer 要解析的ASCII字节 按下标读取 不会改变position
+     * @param offset 开始解析的下标
+     * @return 距1970-01-01的天数 可以用toLocalDate转换
+     * @throws DateTimeParseException 格式或者数值不合法
+     */
+    public static long yyyy_MM_dd(ByteBuffer buffer, int offset) {
+        checkLength(buffer.limit(), offset, YYYY_MM_DD_LENGTH, buffer);
+        if (buffer.get(offset + 4) != '-' || buffer.get(offset + 7) != '-') throw error(buffer, offset, YYYY_MM_DD_LENGTH);
+        long value = epochDay(num4(buffer, offset), num2(buffer, offset + 5), num2(buffer, offset + 8));
+        if (value == INVALID) throw error(buffer, offset, YYYY_MM_DD_LENGTH);
+        return value;
+    }
+
+
+    /**
+     * @param localSeconds 不带时区的本地秒数
+     * @return LocalDateTime
+     */
+    public static LocalDateTime toLocalDateTime(long localSeconds) {
+        return LocalDateTime.ofEpochSecond(localSeconds, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * @param epochDay 距1970-01-01的天数
+     * @return LocalDate
+     */
+    public static LocalDate toLocalDate(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * @param localSeconds 不带时区的本地秒数
+     * @param offset 固定的时区偏移
+     * @return 毫秒时间戳
+     */
+    public static long toEpochMilli(long localSeconds, ZoneOffset offset) {
+        return (localSeconds - offset.getTotalSeconds()) * 1000L;
+    }
+
+    /**
+     * 夏令时切换时不存在的时间向后顺延 重复的时间取较早的偏移 与LocalDateTime.atZone一致
+     * @param localSeconds 不带时区的本地秒数
+     * @param zoneId 时区
+     * @return 毫秒时间戳
+     */
+    public static long toEpochMilli(long localSeconds, ZoneId zoneId) {
+        if (zoneId instanceof ZoneOffset) return toEpochMilli(localSeconds, (ZoneOffset) zoneId);
+        ZoneRules rules = zoneId.getRules();
+        if (rules.isFixedOffset()) return toEpochMilli(localSeconds, rules.getOffset(Instant.EPOCH));
+        return toLocalDateTime(localSeconds).atZone(zoneId).toEpochSecond() * 1000L;
+    }
+
+    /**
+     * 用预先计算好的换算表转换 规则与toEpochMilli(long, ZoneId)一致
+     * @param localSeconds 不带时区的本地秒数
+     * @param table 时区换算表
+     * @return 毫秒时间戳
+     */
+    public static long toEpochMilli(long localSeconds, CZoneTable table) {
+        return table.toEpochMilli(localSeconds * 1000L);
+    }
+
+    private static long localSeconds(int year, int month, int day, int hour, int minute, int second) {
+        long epochDay = epochDay(year, month, day);
+        if (epochDay == INVALID || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) return INVALID;
+        return epochDay * CDateMath.SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > CDateMath.lengthOfMonth(year, month)) return INVALID;
+        return CDateMath.epochDay(year, month, day);
+    }
+
+    private static void checkLength(int available, int offset, int length, CharSequence text) {
+        if (offset < 0 || offset > available - length) throw error(text, offset, length);
+    }
+
+    private static void checkLength(int available, int offset, int length, byte[] bytes) {
+        if (offset < 0 || offset > available - length) throw error(bytes, offset, length);
+    }
+
+    private static void checkLength(int available, int offset, int length, ByteBuffer buffer) {
+        if (offset < 0 || offset > available - length) throw error(buffer, offset, length);
+    }
+
+    private static DateTimeParseException error(CharSequence text, int offset, int length) {
+        int from = Math.max(0, Math.min(offset, text.length()));
+        String parsed = text.subSequence(from, Math.min(text.length(), from + length)).toString();
+        return new DateTimeParseException("Text '" + parsed + "' could not be parsed at index " + offset, parsed, 0);
+    }
+
+    private static DateTimeParseException error(byte[] bytes, int offset, int length) {
+        int from = Math.max(0, Math.min(offset, bytes.length));
+        String parsed = new String(bytes, from, Math.min(bytes.length, from + length) - from, StandardCharsets.US_ASCII);
+        return new DateTimeParseException("Text '" + parsed + "' could not be parsed at index " + offset, parsed, 0);
+    }
+
+    private static DateTimeParseException error(ByteBuffer buffer, int offset, int length) {
+        int from = Math.max(0, Math.min(offset, buffer.limit()));
+        byte[] bytes = new byte[Math.min(buffer.limit(), from + length) - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(from + i);
+        }
+        return error(bytes, 0, bytes.length);
+    }
+
+    private static int num4(CharSequence text, int offset) {
+        int a = text.charAt(offset) - '0', b = text.charAt(offset + 1) - '0', c = text.charAt(offset + 2) - '0', d = text.charAt(offset + 3) - '0';
+        if ((a | b | c | d) < 0 || a > 9 || b > 9 || c > 9 || d > 9) return -1;
+        return a * 1000 + b * 100 + c * 10 + d;
+    }
+
+    private static int num2(CharSequence text, int offset) {
+        int a = text.charAt(offset) - '0', b = text.charAt(offset + 1) - '0';
+        if ((a | b) < 0 || a > 9 || b > 9) return -1;
+        return a * 10 + b;
+    }
+
+    private static int num4(byte[] bytes, int offset) {
+        int a = bytes[offset] - '0', b = bytes[offset + 1] - '0', c = bytes[offset + 2] - '0', d = bytes[offset + 3] - '0';
+        if ((a | b | c | d) < 0 || a > 9 || b > 9 || c > 9 || d > 9) return -1;
+        return a * 1000 + b * 100 + c * 10 + d;
+    }
+
+    private static int num2(byte[] bytes, int offset) {
+        int a = bytes[offset] - '0', b = bytes[offset + 1] - '0';
+        if ((a | b) < 0 || a > 9 || b > 9) return -1;
+        return a * 10 + b;
+    }
+
+    private static int num4(ByteBuffer buffer, int offset) {
+        int a = buffer.get(offset) - '0', b = buffer.get(offset + 1) - '0', c = buffer.get(offset + 2) - '0', d = buffer.get(offset + 3) - '0';
+        if ((a | b | c | d) < 0 || a > 9 || b > 9 || c > 9 || d > 9) return -1;
+        return a * 1000 + b * 100 + c * 10 + d;
+    }
+
+    private static int num2(ByteBuffer buffer, int offset) {
+        int a = buffer.get(offset) - '0', b = buffer.get(offset + 1) - '0';
+        if ((a | b) < 0 || a > 9 || b > 9) return -1;
+        return a * 10 + b;
+    }
+}
@@ -0,0 +1,234 @@
+package io.github.campanula.utils.date;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 时间区间 [start, end] 两端都包含 与CLocalDateTimeUtil.dayStart dayEnd的用法一致
+ * split按天/周/月切分成对齐的子区间 首尾的子区间会被裁剪到原区间内
+ * 子区间是按需创建的 返回的Stream可以直接parallel() 例如把分区查询分散到线程池里执行
+ * 不可变 可以被多个线程共用
+ */
+public final class CDateRange {
+
+    /**
+     * 切分的单位 周从星期一开始
+     */
+    public enum Unit {
+        DAY, WEEK, MONTH
+    }
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    private CDateRange(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @param start 开始时间(包含)
+     * @param end 结束时间(包含)
+     * @return 时间区间
+     */
+    public static CDateRange of(LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(end)) throw new CampanulaRuntimeException("start must not be after end");
+        return new CDateRange(start, end);
+    }
+
+    /**
+     * @param from 开始日期的零点
+     * @param to 结束日期的最后时间 '23:59:59.999999999'
+     * @return 时间区间
+     */
+    public static CDateRange of(LocalDate from, LocalDate to) {
+        return of(CLocalDateTimeUtil.dayStart(from), CLocalDateTimeUtil.dayEnd(to));
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * @param table 时区换算表
+     * @return 开始时刻的毫秒时间戳
+     */
+    public long startEpochMilli(CZoneTable table) {
+        return table.toEpochMilli(start);
+    }
+
+    /**
+     * @param table 时区换算表
+     * @return 结束时刻的毫秒时间戳
+     */
+    public long endEpochMilli(CZoneTable table) {
+        return table.toEpochMilli(end);
+    }
+
+    /**
+     * 按unit切分成对齐的子区间
+     * @param unit 切分的单位
+     * @return 按时间顺序排列的子区间
+     */
+    public Stream<CDateRange> split(Unit unit) {
+        long first = unitIndex(start.toLocalDate(), unit);
+        int count = (int) (unitIndex(end.toLocalDate(), unit) - first + 1);
+        return StreamSupport.stream(new RangeSpliterator(this, unit, first, null, 0, count), false);
+    }
+
+    /**
+     * 按unit对齐切分 再把相邻的子区间合并 使每一块的权重尽量不超过maxWeight
+     * 单个子区间的权重超过maxWeight时单独成为一块
+     * 每个单位的权重会在调用时计算一次
+     * @param unit 切分的单位
+     * @param weight 估算一个子区间的权重 例如预计的数据量
+     * @param maxWeight 每一块权重的上限
+     * @return 按时间顺序排列的子区间
+     */
+    public Stream<CDateRange> split(Unit unit, ToDoubleFunction<CDateRange> weight, double maxWeight) {
+        long first = unitIndex(start.toLocalDate(), unit);
+        int count = (int) (unitIndex(end.toLocalDate(), unit) - first + 1);
+        int[] bounds = new int[count + 1];
+        int chunks = 0;
+        double current = 0D;
+        for (int i = 0; i < count; i++) {
+            double w = weight.applyAsDouble(chunk(this, unit, first + i, first + i + 1));
+            if (i > 0 && current + w > maxWeight) {
+                bounds[++chunks] = i;
+                current = 0D;
+            }
+            current += w;
+        }
+        bounds[++chunks] = count;
+        return StreamSupport.stream(new RangeSpliterator(this, unit, first, bounds, 0, chunks), false);
+    }
+
+    /**
+     * @return 单位在1970-01-01之后的序号 天为epoch day 周从1970-01-05(星期一)开始 月为 年*12 + 月 - 1
+     */
+    private static long unitIndex(LocalDate date, Unit unit) {
+        switch (unit) {
+            case DAY:
+                return date.toEpochDay();
+            case WEEK:
+                return Math.floorDiv(date.toEpochDay() + 3, 7L);
+            default:
+                return date.getYear() * 12L + date.getMonthValue() - 1;
+        }
+    }
+
+    private static LocalDateTime unitStart(long index, Unit unit) {
+        switch (unit) {
+            case DAY:
+                return CLocalDateTimeUtil.dayStart(LocalDate.ofEpochDay(index));
+            case WEEK:
+                return CLocalDateTimeUtil.dayStart(LocalDate.ofEpochDay(index * 7 - 3));
+            default:
+                return CLocalDateTimeUtil.dayStart(LocalDate.of((int) Math.floorDiv(index, 12L), (int) Math.floorMod(index, 12L) + 1, 1));
+        }
+    }
+
+    /**
+     * @return [fromIndex, toIndex) 这些单位组成的子区间 裁剪到range内
+     */
+    private static CDateRange chunk(CDateRange range, Unit unit, long fromIndex, long toIndex) {
+        LocalDateTime chunkStart = unitStart(fromIndex, unit);
+        LocalDateTime chunkEnd = unitStart(toIndex, unit).minusNanos(1);
+        return new CDateRange(chunkStart.isBefore(range.start) ? range.start : chunkStart,
+                chunkEnd.isAfter(range.end) ? range.end : chunkEnd);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CDateRange)) return false;
+        CDateRange other = (CDateRange) o;
+        return start.equals(other.start) && end.equals(other.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * start.hashCode() + end.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + "]";
+    }
+
+    /**
+     * 子区间的Spliterator 只保存下标 遍历时才创建子区间 可以对半拆分
+     */
+    private static final class RangeSpliterator implements Spliterator<CDateRange> {
+
+        private final CDateRange range;
+        private final Unit unit;
+        private final long first;
+
+        /**
+         * 合并后每一块的单位下标边界 为空时每个单位一块
+         */
+        private final int[] bounds;
+        private int from;
+        private final int to;
+
+        private RangeSpliterator(CDateRange range, Unit unit, long first, int[] bounds, int from, int to) {
+            this.range = range;
+            this.unit = unit;
+            this.first = first;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        private CDateRange get(int i) {
+            if (bounds == null) return chunk(range, unit, first + i, first + i + 1);
+            return chunk(range, unit, first + bounds[i], first + bounds[i + 1]);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CDateRange> action) {
+            if (from >= to) return false;
+            action.accept(get(from++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super CDateRange> action) {
+            for (int i = from; i < to; i++) {
+                action.accept(get(i));
+            }
+            from = to;
+        }
+
+        @Override
+        public Spliterator<CDateRange> trySplit() {
+            int mid = (from + to) >>> 1;
+            if (mid <= from) return null;
+            RangeSpliterator prefix = new RangeSpliterator(range, unit, first, bounds, from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | DISTINCT | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -3,8 +3,6 @@ package io.github.campanula.utils.date;
 import java.time.*;
 import java.util.Date;
 
-import static java.time.format.DateTimeFormatter.ofPattern;
-
 public final class CLocalDateTimeUtil {
 
     /**
@@ -79,7 +77,7 @@ public final class CLocalDateTimeUtil {
      * @return 格式化后的日期字符串
      */
     public static String yyyyMMddHHmmss() {
-        return LocalDateTime.now().format(ofPattern("yyyyMMddHHmmss"));
+        return CDateFormatUtil.yyyyMMddHHmmss(LocalDateTime.now());
     }
 
     /**
@@ -88,7 +86,7 @@ public final class CLocalDateTimeUtil {
      * @return 格式化后的日期字符串
      */
     public static String yyyyMMddHHmmss(LocalDateTime date) {
-        return date.format(ofPattern("yyyyMMddHHmmss"));
+        return CDateFormatUtil.yyyyMMddHHmmss(date);
     }
 
     /**
@@ -96,7 +94,7 @@ public final class CLocalDateTimeUtil {
      * @return 格式化后的日期字符串
      */
     public static String yyyy_MM_ddHH_mm_ss() {
-        return LocalDateTime.now().format(ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return CDateFormatUtil.yyyy_MM_ddHH_mm_ss(LocalDateTime.now());
     }
 
     /**
@@ -105,7 +103,7 @@ public final class CLocalDateTimeUtil {
      * @return 格式化后的日期字符串
      */
     public static String yyyy_MM_ddHH_mm_ss(LocalDateTime date) {
-        return date.format(ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return CDateFormatUtil.yyyy_MM_ddHH_mm_ss(date);
     }
 
     private static ZoneId getZoneId() {
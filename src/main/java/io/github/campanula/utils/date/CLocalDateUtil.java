@@ -3,8 +3,6 @@ package io.github.campanula.utils.date;
 import java.time.*;
 import java.util.Date;
 
-import static java.time.format.DateTimeFormatter.ofPattern;
-
 public final class CLocalDateUtil {
 
     /**
@@ -29,7 +27,7 @@ public final class CLocalDateUtil {
      * @return 格式化后的日期字符串
      */
     public static String yyyyMMdd() {
-        return LocalDate.now().format(ofPattern("yyyyMMdd"));
+        return CDateFormatUtil.yyyyMMdd(LocalDate.now());
     }
 
     /**
@@ -38,7 +36,7 @@ public final class CLocalDateUtil {
      * @return 格式化后的日期字符串
      */
     public static String yyyyMMdd(LocalDate date) {
-        return date.format(ofPattern("yyyyMMdd"));
+        return CDateFormatUtil.yyyyMMdd(date);
     }
 
     /**
@@ -46,7 +44,7 @@ public final class CLocalDateUtil {
      * @return 格式化后的日期字符串
      */
     public static String yyyy_MM_dd() {
-        return LocalDate.now().format(ofPattern("yyyy-MM-dd"));
+        return CDateFormatUtil.yyyy_MM_dd(LocalDate.now());
     }
 
     /**
@@ -55,7 +53,7 @@ public final class CLocalDateUtil {
      * @return 格式化后的日期字符串
      */
     public static String yyyy_MM_dd(LocalDate date) {
-        return date.format(ofPattern("yyyy-MM-dd"));
+        return CDateFormatUtil.yyyy_MM_dd(date);
     }
 
     private static ZoneId getZoneId() {
@@ -0,0 +1,376 @@
+package io.github.campanula.utils.date;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 按天切换(日志文件 计数器 缓存等)的共用调度器 基于哈希时间轮
+ * 一个后台线程每个tick推进一格 添加和取消都是O(1) 适合上千个定时器同时存在
+ * 每天执行的定时器在每次执行后按CZoneTable重新计算下一次的时间 夏令时切换的那一天也会落在正确的本地时间
+ * 精度等于tick 回调默认在后台线程里执行 耗时的回调应该传入Executor
+ */
+public final class CRolloverScheduler {
+
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private static volatile CRolloverScheduler sharedScheduler;
+
+    private final CZoneTable table;
+    private final long tickNanos;
+    private final int mask;
+    private final Bucket[] wheel;
+    private final Executor executor;
+    private final Queue<Timer> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timer> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos;
+
+    /**
+     * 是否是共用的调度器 共用的调度器不能停止
+     */
+    private final boolean shared;
+    private volatile boolean running = true;
+    private long tick;
+
+    private CRolloverScheduler(ZoneId zoneId, long tickNanos, int wheelSize, Executor executor, boolean shared) {
+        this.table = zoneId.equals(ZoneId.systemDefault()) ? CZoneTable.systemDefault() : CZoneTable.of(zoneId, 1970, 2100);
+        this.tickNanos = tickNanos;
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.mask = size - 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) this.wheel[i] = new Bucket();
+        this.executor = executor;
+        this.shared = shared;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::work, "campanula-rollover-scheduler");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 启动一个新的调度器 不用时需要调用stop
+     * @param zoneId 时区
+     * @param tick 每一格的时间
+     * @param unit 时间单位
+     * @param wheelSize 时间轮的格数 会向上取整为2的幂
+     * @param executor 执行回调的线程池 为空时在调度线程里执行
+     * @return 调度器
+     */
+    public static CRolloverScheduler start(ZoneId zoneId, long tick, TimeUnit unit, int wheelSize, Executor executor) {
+        if (unit.toMillis(tick) < 1) throw new CampanulaRuntimeException("tick must be at least 1 millisecond");
+        if (wheelSize < 2 || wheelSize > 1 << 20) throw new CampanulaRuntimeException("wheelSize must be in [2, 1048576]");
+        return new CRolloverScheduler(zoneId, unit.toNanos(tick), wheelSize, executor, false);
+    }
+
+    /**
+     * 获取共用的调度器 系统默认时区 100毫秒一格 512格 第一次调用时启动 不能停止
+     * @return 调度器
+     */
+    public static CRolloverScheduler shared() {
+        CRolloverScheduler scheduler = sharedScheduler;
+        if (scheduler == null) {
+            synchronized (CRolloverScheduler.class) {
+                scheduler = sharedScheduler;
+                if (scheduler == null) {
+                    scheduler = new CRolloverScheduler(ZoneId.systemDefault(), TimeUnit.MILLISECONDS.toNanos(100), 512, null, true);
+                    sharedScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * 停止调度 未执行的定时器不会再执行
+     * @throws CampanulaRuntimeException 停止共用的调度器时 其他使用者的定时器都会失效
+     */
+    public void stop() {
+        if (this.shared) throw new CampanulaRuntimeException("the shared scheduler cannot be stopped");
+        this.running = false;
+        this.worker.interrupt();
+    }
+
+    public ZoneId getZoneId() {
+        return table.getZoneId();
+    }
+
+    /**
+     * 延迟执行一次
+     * @param task 回调
+     * @param delay 延迟
+     * @param unit 时间单位
+     * @return 定时器 可以取消
+     */
+    public Timer schedule(Runnable task, long delay, TimeUnit unit) {
+        Timer timer = new Timer(task, null, 0L);
+        arm(timer, System.nanoTime() - startNanos + Math.max(0L, unit.toNanos(delay)));
+        return timer;
+    }
+
+    /**
+     * 每天在本地时间time执行 夏令时跳过的时间顺延 重复的时间只执行一次
+     * @param task 回调
+     * @param time 本地时间
+     * @return 定时器 可以取消
+     */
+    public Timer scheduleDaily(Runnable task, LocalTime time) {
+        return daily(new Timer(task, time, 0L));
+    }
+
+    /**
+     * 每天在一天开始(dayStart)之后offset执行 offset为负数时在一天结束(dayEnd)之前执行
+     * offset是实际经过的时间 夏令时切换的那一天不会因为本地时间的跳变而偏移
+     * @param task 回调
+     * @param offset 相对dayStart或者dayEnd的时间
+     * @param unit 时间单位
+     * @return 定时器 可以取消
+     */
+    public Timer scheduleDaily(Runnable task, long offset, TimeUnit unit) {
+        long offsetMillis = unit.toMillis(offset);
+        if (Math.abs(offsetMillis) >= CDateMath.MILLIS_PER_DAY) throw new CampanulaRuntimeException("offset must be less than one day");
+        return daily(new Timer(task, null, offsetMillis));
+    }
+
+    /**
+     * 每天在dayStart执行 即跨天的时刻
+     * @param task 回调
+     * @return 定时器 可以取消
+     */
+    public Timer atDayStart(Runnable task) {
+        return scheduleDaily(task, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    private Timer daily(Timer timer) {
+        timer.daily = true;
+        armDaily(timer, System.currentTimeMillis());
+        return timer;
+    }
+
+    /**
+     * 按下一次的本地时间放入时间轮
+     */
+    private void armDaily(Timer timer, long nowMillis) {
+        long epochDay = table.epochDay(nowMillis);
+        long target = timer.nextMillis(table, epochDay);
+        if (target <= nowMillis) target = timer.nextMillis(table, epochDay + 1);
+        timer.targetMillis = target;
+        arm(timer, System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(target - nowMillis));
+    }
+
+    private void arm(Timer timer, long deadline) {
+        if (!running) throw new CampanulaRuntimeException("scheduler stopped");
+        timer.deadline = deadline;
+        pending.add(timer);
+    }
+
+    private void work() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleep = deadline - (System.nanoTime() - startNanos);
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            removeCancelled();
+            transferPending();
+            expire(wheel[(int) (tick & mask)], deadline);
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        for (Timer timer; (timer = cancelled.poll()) != null; ) {
+            if (timer.bucket != null) timer.bucket.remove(timer);
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < 100000; i++) {
+            Timer timer = pending.poll();
+            if (timer == null) return;
+            if (timer.state.get() == CANCELLED) continue;
+            long ticks = timer.deadline / tickNanos;
+            timer.rounds = (ticks - tick) / wheel.length;
+            wheel[(int) (Math.max(ticks, tick) & mask)].add(timer);
+        }
+    }
+
+    private void expire(Bucket bucket, long deadline) {
+        Timer timer = bucket.head;
+        while (timer != null) {
+            Timer next = timer.next;
+            if (timer.rounds <= 0) {
+                bucket.remove(timer);
+                if (timer.deadline <= deadline) {
+                    // 一个定时器出错不能让调度线程退出 否则所有定时器都不会再执行
+                    try {
+                        fire(timer);
+                    }
+                    catch (Throwable e) {
+                        report(e);
+                    }
+                }
+                else pending.add(timer);
+            }
+            else if (timer.state.get() == CANCELLED) {
+                bucket.remove(timer);
+            }
+            else {
+                timer.rounds--;
+            }
+            timer = next;
+        }
+    }
+
+    private void fire(Timer timer) {
+        if (timer.daily) {
+            long now = System.currentTimeMillis();
+            // 系统时钟被调整过 还没有到本地时间 按剩余的时间重新放入
+            if (timer.targetMillis - now > TimeUnit.NANOSECONDS.toMillis(tickNanos)) {
+                arm(timer, System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(timer.targetMillis - now));
+                return;
+            }
+        }
+        if (!timer.state.compareAndSet(INIT, EXPIRED)) return;
+        try {
+            if (executor == null) {
+                run(timer.task);
+            }
+            else {
+                executor.execute(() -> run(timer.task));
+            }
+        }
+        finally {
+            // 线程池拒绝执行时 每天执行的定时器也要放入下一天
+            if (timer.daily && timer.state.compareAndSet(EXPIRED, INIT) && running) {
+                armDaily(timer, Math.max(System.currentTimeMillis(), timer.targetMillis));
+            }
+        }
+    }
+
+    private static void run(Runnable task) {
+        try {
+            task.run();
+        }
+        catch (Throwable e) {
+            report(e);
+        }
+    }
+
+    private static void report(Throwable e) {
+        Thread thread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+        if (handler != null) handler.uncaughtException(thread, e);
+    }
+
+    /**
+     * 定时器
+     */
+    public final class Timer {
+
+        private final Runnable task;
+
+        /**
+         * 每天执行的本地时间 为空时按offsetMillis计算
+         */
+        private final LocalTime time;
+        private final long offsetMillis;
+        private boolean daily;
+        private volatile long targetMillis;
+
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        /**
+         * 相对startNanos的纳秒数
+         */
+        private long deadline;
+        private long rounds;
+        private Bucket bucket;
+        private Timer prev;
+        private Timer next;
+
+        private Timer(Runnable task, LocalTime time, long offsetMillis) {
+            this.task = task;
+            this.time = time;
+            this.offsetMillis = offsetMillis;
+        }
+
+        /**
+         * @return epochDay那一天执行的毫秒时间戳
+         */
+        private long nextMillis(CZoneTable table, long epochDay) {
+            if (time != null) return table.toEpochMilli(epochDay * CDateMath.MILLIS_PER_DAY + time.toNanoOfDay() / 1000000L);
+            if (offsetMillis >= 0) return table.dayStartOfEpochDay(epochDay) + offsetMillis;
+            return table.dayStartOfEpochDay(epochDay + 1) + offsetMillis;
+        }
+
+        /**
+         * 取消 每天执行的定时器取消后不会再执行
+         * @return 是否取消成功 已经执行过的一次性定时器返回false
+         */
+        public boolean cancel() {
+            for (;;) {
+                int current = state.get();
+                if (current == CANCELLED) return false;
+                if (current == EXPIRED && !daily) return false;
+                if (state.compareAndSet(current, CANCELLED)) {
+                    cancelled.add(this);
+                    return true;
+                }
+            }
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        /**
+         * @return 下一次(每天执行的定时器)执行的毫秒时间戳 一次性定时器返回0
+         */
+        public long getTargetMillis() {
+            return targetMillis;
+        }
+    }
+
+    /**
+     * 时间轮的一格 双向链表 只在调度线程里访问
+     */
+    private static final class Bucket {
+
+        private Timer head;
+        private Timer tail;
+
+        private void add(Timer timer) {
+            timer.bucket = this;
+            if (head == null) {
+                head = tail = timer;
+            }
+            else {
+                tail.next = timer;
+                timer.prev = tail;
+                tail = timer;
+            }
+        }
+
+        private void remove(Timer timer) {
+            if (timer.bucket != this) return;
+            if (timer.prev != null) timer.prev.next = timer.next;
+            else head = timer.next;
+            if (timer.next != null) timer.next.prev = timer.prev;
+            else tail = timer.prev;
+            timer.prev = null;
+            timer.next = null;
+            timer.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.campanula.utils.date;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.time.DayOfWeek;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把毫秒时间戳映射到时间窗口
+ * 每个窗口有一个连续递增的下标 相邻窗口的下标相差1 可以直接用来做数组/环形数组的下标
+ * fixed 按固定长度从1970-01-01T00:00:00Z开始切分 与时区无关
+ * local 按本地时间(墙上时间)切分 夏令时跳过的时间对应的窗口为空 重复的时间落在同一个窗口
+ * days weeks months 按本地日期切分 与CZoneTable的dayStart一致
+ * 不可变 可以被多个线程共用
+ */
+public final class CTimeBucket {
+
+    private enum Kind {
+        FIXED, LOCAL, DAY, WEEK, MONTH
+    }
+
+    private final Kind kind;
+    private final long sizeMillis;
+    private final int firstDayOfWeek;
+    private final CZoneTable table;
+
+    private CTimeBucket(Kind kind, long sizeMillis, int firstDayOfWeek, CZoneTable table) {
+        this.kind = kind;
+        this.sizeMillis = sizeMillis;
+        this.firstDayOfWeek = firstDayOfWeek;
+        this.table = table;
+    }
+
+    /**
+     * 与时区无关的固定长度窗口 例如每分钟
+     * @param size 窗口长度
+     * @param unit 时间单位
+     * @return 窗口
+     */
+    public static CTimeBucket fixed(long size, TimeUnit unit) {
+        long sizeMillis = unit.toMillis(size);
+        if (sizeMillis <= 0) throw new CampanulaRuntimeException("size must be at least 1 millisecond");
+        return new CTimeBucket(Kind.FIXED, sizeMillis, 0, null);
+    }
+
+    /**
+     * 按本地时间切分的固定长度窗口 例如本地时间的每小时 长度必须能整除一天
+     * @param size 窗口长度
+     * @param unit 时间单位
+     * @param table 时区换算表
+     * @return 窗口
+     */
+    public static CTimeBucket local(long size, TimeUnit unit, CZoneTable table) {
+        long sizeMillis = unit.toMillis(size);
+        if (sizeMillis <= 0 || CDateMath.MILLIS_PER_DAY % sizeMillis != 0) {
+            throw new CampanulaRuntimeException("size must be a divisor of one day");
+        }
+        return new CTimeBucket(Kind.LOCAL, sizeMillis, 0, table);
+    }
+
+    /**
+     * 本地日期 每天一个窗口 下标为epoch day
+     * @param table 时区换算表
+     * @return 窗口
+     */
+    public static CTimeBucket days(CZoneTable table) {
+        return new CTimeBucket(Kind.DAY, 0, 0, table);
+    }
+
+    /**
+     * 本地日期 每周一个窗口
+     * @param table 时区换算表
+     * @param firstDayOfWeek 一周的第一天
+     * @return 窗口
+     */
+    public static CTimeBucket weeks(CZoneTable table, DayOfWeek firstDayOfWeek) {
+        return new CTimeBucket(Kind.WEEK, 0, firstDayOfWeek.getValue(), table);
+    }
+
+    /**
+     * 本地日期 每月一个窗口 下标为 年*12 + 月 - 1
+     * @param table 时区换算表
+     * @return 窗口
+     */
+    public static CTimeBucket months(CZoneTable table) {
+        return new CTimeBucket(Kind.MONTH, 0, 0, table);
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在窗口的下标
+     */
+    public long index(long epochMilli) {
+        switch (kind) {
+            case FIXED:
+                return Math.floorDiv(epochMilli, sizeMillis);
+            case LOCAL:
+                return Math.floorDiv(epochMilli + table.offsetSeconds(epochMilli) * 1000L, sizeMillis);
+            case DAY:
+                return table.epochDay(epochMilli);
+            case WEEK:
+                // 1970-01-01 是星期四
+                return Math.floorDiv(table.epochDay(epochMilli) + 4 - firstDayOfWeek, 7L);
+            default:
+                int key = table.dayKey(epochMilli);
+                return (key / 10000) * 12L + key / 100 % 100 - 1;
+        }
+    }
+
+    /**
+     * 批量计算所在窗口的下标
+     * @param epochMillis 毫秒时间戳
+     * @param out 写入的数组 长度至少与epochMillis相同
+     */
+    public void index(long[] epochMillis, long[] out) {
+        for (int i = 0; i < epochMillis.length; i++) {
+            out[i] = index(epochMillis[i]);
+        }
+    }
+
+    /**
+     * @param index 窗口的下标
+     * @return 窗口开始时刻的毫秒时间戳(包含)
+     */
+    public long startOf(long index) {
+        switch (kind) {
+            case FIXED:
+                return index * sizeMillis;
+            case LOCAL:
+                return table.toEpochMilli(index * sizeMillis);
+            case DAY:
+                return table.dayStartOfEpochDay(index);
+            case WEEK:
+                return table.dayStartOfEpochDay(index * 7 - 4 + firstDayOfWeek);
+            default:
+                int year = (int) Math.floorDiv(index, 12L);
+                int month = (int) Math.floorMod(index, 12L) + 1;
+                return table.dayStartOfEpochDay(CDateMath.epochDay(year, month, 1));
+        }
+    }
+
+    /**
+     * @param index 窗口的下标
+     * @return 窗口结束时刻的毫秒时间戳(不包含) 即下一个窗口的开始
+     */
+    public long endOf(long index) {
+        return startOf(index + 1);
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在窗口开始时刻的毫秒时间戳(包含)
+     */
+    public long start(long epochMilli) {
+        return kind == Kind.FIXED ? epochMilli - Math.floorMod(epochMilli, sizeMillis) : startOf(index(epochMilli));
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在窗口结束时刻的毫秒时间戳(不包含)
+     */
+    public long end(long epochMilli) {
+        return endOf(index(epochMilli));
+    }
+}
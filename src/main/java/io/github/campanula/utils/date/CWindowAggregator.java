@@ -0,0 +1,274 @@
+package io.github.campanula.utils.date;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.util.Arrays;
+
+/**
+ * 按时间窗口流式聚合 每个窗口记录次数 总和 最小值 最大值
+ * 只保留最近的windows个窗口 放在环形的基本类型数组里 不装箱 每个事件不创建对象
+ * 时间前进时顺带把过期的窗口清空 并回调ExpireListener 可以用来输出每分钟的指标
+ * 不是线程安全的 多线程时每个线程一个 最后用merge合并
+ */
+public final class CWindowAggregator {
+
+    /**
+     * 窗口过期时的回调
+     */
+    @FunctionalInterface
+    public interface ExpireListener {
+
+        /**
+         * @param start 窗口开始时刻的毫秒时间戳(包含)
+         * @param end 窗口结束时刻的毫秒时间戳(不包含)
+         * @param count 次数
+         * @param sum 总和
+         * @param min 最小值 没有值时为NaN
+         * @param max 最大值 没有值时为NaN
+         */
+        void expired(long start, long end, long count, double sum, double min, double max);
+    }
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final CTimeBucket bucket;
+    private final int windows;
+    private final ExpireListener listener;
+
+    /**
+     * 每个槽位当前存放的窗口下标
+     */
+    private final long[] indexes;
+    private final long[] counts;
+    private final double[] sums;
+    private final double[] mins;
+    private final double[] maxs;
+
+    /**
+     * 已经出现过的最新窗口下标
+     */
+    private long latest = EMPTY;
+
+    /**
+     * @param bucket 时间窗口
+     * @param windows 保留的窗口个数
+     */
+    public CWindowAggregator(CTimeBucket bucket, int windows) {
+        this(bucket, windows, null);
+    }
+
+    /**
+     * @param bucket 时间窗口
+     * @param windows 保留的窗口个数
+     * @param listener 窗口过期时的回调 可以为空
+     */
+    public CWindowAggregator(CTimeBucket bucket, int windows, ExpireListener listener) {
+        if (windows < 1) throw new CampanulaRuntimeException("windows must be greater than 0");
+        this.bucket = bucket;
+        this.windows = windows;
+        this.listener = listener;
+        this.indexes = new long[windows];
+        this.counts = new long[windows];
+        this.sums = new double[windows];
+        this.mins = new double[windows];
+        this.maxs = new double[windows];
+        Arrays.fill(this.indexes, EMPTY);
+    }
+
+    /**
+     * 记录一次事件 值为0
+     * @param epochMilli 事件的毫秒时间戳
+     * @return 是否记录 早于保留范围的事件不记录
+     */
+    public boolean add(long epochMilli) {
+        return add(epochMilli, 0D);
+    }
+
+    /**
+     * 记录一次事件
+     * @param epochMilli 事件的毫秒时间戳
+     * @param value 值
+     * @return 是否记录 早于保留范围的事件不记录
+     */
+    public boolean add(long epochMilli, double value) {
+        int slot = slot(bucket.index(epochMilli));
+        if (slot < 0) return false;
+        if (counts[slot] == 0L) {
+            mins[slot] = value;
+            maxs[slot] = value;
+        }
+        else {
+            if (value < mins[slot]) mins[slot] = value;
+            if (value > maxs[slot]) maxs[slot] = value;
+        }
+        counts[slot]++;
+        sums[slot] += value;
+        return true;
+    }
+
+    /**
+     * 没有事件时推进时间 让过期的窗口及时回调
+     * @param nowMilli 当前的毫秒时间戳
+     */
+    public void advance(long nowMilli) {
+        long index = bucket.index(nowMilli);
+        if (latest == EMPTY || index > latest) moveTo(index);
+    }
+
+    /**
+     * 合并另一个相同窗口划分的聚合器 other不会被修改
+     * @param other 另一个聚合器
+     */
+    public void merge(CWindowAggregator other) {
+        for (int i = 0; i < other.windows; i++) {
+            if (other.indexes[i] == EMPTY || other.counts[i] == 0L) continue;
+            int slot = slot(other.indexes[i]);
+            if (slot < 0) continue;
+            if (counts[slot] == 0L) {
+                mins[slot] = other.mins[i];
+                maxs[slot] = other.maxs[i];
+            }
+            else {
+                mins[slot] = Math.min(mins[slot], other.mins[i]);
+                maxs[slot] = Math.max(maxs[slot], other.maxs[i]);
+            }
+            counts[slot] += other.counts[i];
+            sums[slot] += other.sums[i];
+        }
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在窗口的次数 不在保留范围内时为0
+     */
+    public long count(long epochMilli) {
+        int slot = find(bucket.index(epochMilli));
+        return slot < 0 ? 0L : counts[slot];
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在窗口的总和 不在保留范围内时为0
+     */
+    public double sum(long epochMilli) {
+        int slot = find(bucket.index(epochMilli));
+        return slot < 0 ? 0D : sums[slot];
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在窗口的最小值 没有值时为NaN
+     */
+    public double min(long epochMilli) {
+        int slot = find(bucket.index(epochMilli));
+        return slot < 0 || counts[slot] == 0L ? Double.NaN : mins[slot];
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在窗口的最大值 没有值时为NaN
+     */
+    public double max(long epochMilli) {
+        int slot = find(bucket.index(epochMilli));
+        return slot < 0 || counts[slot] == 0L ? Double.NaN : maxs[slot];
+    }
+
+    /**
+     * @param n 窗口个数 最多为保留的窗口个数
+     * @return 最新的n个窗口(包含最新的窗口)的次数之和
+     */
+    public long countLast(int n) {
+        long total = 0L;
+        for (int i = 0, size = Math.min(n, windows); i < size && latest != EMPTY; i++) {
+            int slot = find(latest - i);
+            if (slot >= 0) total += counts[slot];
+        }
+        return total;
+    }
+
+    /**
+     * @param n 窗口个数 最多为保留的窗口个数
+     * @return 最新的n个窗口(包含最新的窗口)的总和
+     */
+    public double sumLast(int n) {
+        double total = 0D;
+        for (int i = 0, size = Math.min(n, windows); i < size && latest != EMPTY; i++) {
+            int slot = find(latest - i);
+            if (slot >= 0) total += sums[slot];
+        }
+        return total;
+    }
+
+    /**
+     * @return 已经出现过的最新窗口下标 还没有事件时为Long.MIN_VALUE
+     */
+    public long getLatest() {
+        return latest;
+    }
+
+    public CTimeBucket getBucket() {
+        return bucket;
+    }
+
+    /**
+     * 把所有未过期的窗口按时间顺序回调 然后清空
+     */
+    public void flush() {
+        if (latest == EMPTY) return;
+        for (long index = latest - windows + 1; index <= latest; index++) {
+            int slot = slotOf(index);
+            if (indexes[slot] == index) expire(slot);
+        }
+        latest = EMPTY;
+    }
+
+    /**
+     * @param index 窗口下标
+     * @return 窗口所在的槽位 早于保留范围时返回-1
+     */
+    private int slot(long index) {
+        if (latest == EMPTY || index > latest) {
+            moveTo(index);
+        }
+        else if (index <= latest - windows) {
+            return -1;
+        }
+        int slot = slotOf(index);
+        indexes[slot] = index;
+        return slot;
+    }
+
+    /**
+     * 前进到index 按时间顺序清空移出保留范围的窗口 最多清空windows个
+     */
+    private void moveTo(long index) {
+        if (latest != EMPTY) {
+            for (long i = latest - windows + 1, last = Math.min(latest, index - windows); i <= last; i++) {
+                int slot = slotOf(i);
+                if (indexes[slot] == i) expire(slot);
+            }
+        }
+        latest = index;
+    }
+
+    private int find(long index) {
+        if (latest == EMPTY || index > latest || index <= latest - windows) return -1;
+        int slot = slotOf(index);
+        return indexes[slot] == index ? slot : -1;
+    }
+
+    private void expire(int slot) {
+        long index = indexes[slot];
+        if (index == EMPTY) return;
+        if (listener != null && counts[slot] != 0L) {
+            listener.expired(bucket.startOf(index), bucket.endOf(index), counts[slot], sums[slot], mins[slot], maxs[slot]);
+        }
+        indexes[slot] = EMPTY;
+        counts[slot] = 0L;
+        sums[slot] = 0D;
+    }
+
+    private int slotOf(long index) {
+        return (int) Math.floorMod(index, (long) windows);
+    }
+}
@@ -0,0 +1,238 @@
+package io.github.campanula.utils.date;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+
+/**
+ * 指定时区的毫秒时间戳与本地日期时间的换算表
+ * 构造时把 [fromYear, toYear] 内每一天的开始时刻和偏移预先算好
+ * 换算只需要数组下标加算术 范围外的时间以及当天有夏令时切换的本地时间会回退到java.time
+ * 构造完成后不可变 可以被多个线程共用
+ */
+public final class CZoneTable {
+
+    private static volatile CZoneTable systemDefault;
+
+    private final ZoneId zoneId;
+    private final int fromYear;
+    private final int toYear;
+
+    /**
+     * 第一天的epoch day
+     */
+    private final long firstEpochDay;
+
+    /**
+     * 每一天开始时刻的毫秒时间戳 最后多一个元素作为最后一天的结束
+     */
+    private final long[] dayStartMillis;
+
+    /**
+     * 每一天开始时的偏移(秒)
+     */
+    private final int[] offsetSeconds;
+
+    /**
+     * 当天内有偏移变化(夏令时切换)的日期 一天一位
+     */
+    private final long[] irregular;
+
+    private CZoneTable(ZoneId zoneId, int fromYear, int toYear) {
+        this.zoneId = zoneId;
+        this.fromYear = fromYear;
+        this.toYear = toYear;
+        this.firstEpochDay = LocalDate.of(fromYear, 1, 1).toEpochDay();
+        int days = (int) (LocalDate.of(toYear + 1, 1, 1).toEpochDay() - firstEpochDay);
+        this.dayStartMillis = new long[days + 1];
+        this.offsetSeconds = new int[days];
+        this.irregular = new long[(days + 63) >>> 6];
+
+        ZoneRules rules = zoneId.getRules();
+        for (int i = 0; i <= days; i++) {
+            dayStartMillis[i] = LocalDate.ofEpochDay(firstEpochDay + i).atStartOfDay(zoneId).toInstant().toEpochMilli();
+        }
+        for (int i = 0; i < days; i++) {
+            long start = dayStartMillis[i];
+            int offset = rules.getOffset(Instant.ofEpochMilli(start)).getTotalSeconds();
+            int endOffset = rules.getOffset(Instant.ofEpochMilli(dayStartMillis[i + 1] - 1)).getTotalSeconds();
+            offsetSeconds[i] = offset;
+            boolean midnight = start == (firstEpochDay + i) * CDateMath.MILLIS_PER_DAY - offset * 1000L;
+            if (offset != endOffset || !midnight) {
+                irregular[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * 创建换算表 每一年大约占用4.5KB
+     * @param zoneId 时区
+     * @param fromYear 开始的年份(包含)
+     * @param toYear 结束的年份(包含)
+     * @return 换算表
+     */
+    public static CZoneTable of(ZoneId zoneId, int fromYear, int toYear) {
+        if (fromYear > toYear) throw new CampanulaRuntimeException("fromYear must not be greater than toYear");
+        return new CZoneTable(zoneId, fromYear, toYear);
+    }
+
+    /**
+     * 获取系统默认时区 1970-2100年的换算表 系统默认时区变化后会重新创建
+     * @return 换算表
+     */
+    public static CZoneTable systemDefault() {
+        ZoneId zoneId = ZoneId.systemDefault();
+        CZoneTable table = systemDefault;
+        if (table == null || !table.zoneId.equals(zoneId)) {
+            table = new CZoneTable(zoneId, 1970, 2100);
+            systemDefault = table;
+        }
+        return table;
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    public int getFromYear() {
+        return fromYear;
+    }
+
+    public int getToYear() {
+        return toYear;
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在的本地日期距1970-01-01的天数
+     */
+    public long epochDay(long epochMilli) {
+        int index = dayIndex(epochMilli);
+        if (index < 0) return Instant.ofEpochMilli(epochMilli).atZone(zoneId).toLocalDate().toEpochDay();
+        return firstEpochDay + index;
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在的本地日期 年*10000 + 月*100 + 日 例如 20191214
+     */
+    public int dayKey(long epochMilli) {
+        return CDateMath.dayKey(epochDay(epochMilli));
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在的本地日期
+     */
+    public LocalDate localDate(long epochMilli) {
+        return LocalDate.ofEpochDay(epochDay(epochMilli));
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在的本地日期时间
+     */
+    public LocalDateTime localDateTime(long epochMilli) {
+        long local = epochMilli + offsetSeconds(epochMilli) * 1000L;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(local, 1000L), (int) Math.floorMod(local, 1000L) * 1000000, ZoneOffset.UTC);
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 这一时刻的偏移(秒)
+     */
+    public int offsetSeconds(long epochMilli) {
+        int index = dayIndex(epochMilli);
+        if (index < 0 || isIrregular(index)) {
+            return zoneId.getRules().getOffset(Instant.ofEpochMilli(epochMilli)).getTotalSeconds();
+        }
+        return offsetSeconds[index];
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在本地日期开始时刻的毫秒时间戳 与CLocalDateTimeUtil.dayStart对应
+     */
+    public long dayStart(long epochMilli) {
+        int index = dayIndex(epochMilli);
+        if (index < 0) return dayStartOfEpochDay(epochDay(epochMilli));
+        return dayStartMillis[index];
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在本地日期最后一毫秒的毫秒时间戳 与CLocalDateTimeUtil.dayEnd对应
+     */
+    public long dayEnd(long epochMilli) {
+        int index = dayIndex(epochMilli);
+        if (index < 0) return dayStartOfEpochDay(epochDay(epochMilli) + 1) - 1;
+        return dayStartMillis[index + 1] - 1;
+    }
+
+    /**
+     * @param epochDay 距1970-01-01的天数
+     * @return 这一天开始时刻的毫秒时间戳
+     */
+    public long dayStartOfEpochDay(long epochDay) {
+        long index = epochDay - firstEpochDay;
+        if (index < 0 || index >= offsetSeconds.length) {
+            return LocalDate.ofEpochDay(epochDay).atStartOfDay(zoneId).toInstant().toEpochMilli();
+        }
+        return dayStartMillis[(int) index];
+    }
+
+    /**
+     * @param date 本地日期
+     * @return 这一天开始时刻的毫秒时间戳
+     */
+    public long dayStart(LocalDate date) {
+        return dayStartOfEpochDay(date.toEpochDay());
+    }
+
+    /**
+     * 本地时间转毫秒时间戳 夏令时切换时不存在的时间向后顺延 重复的时间取较早的偏移 与LocalDateTime.atZone一致
+     * @param localMilli 不带时区的本地毫秒数(距1970-01-01T00:00:00)
+     * @return 毫秒时间戳
+     */
+    public long toEpochMilli(long localMilli) {
+        long index = Math.floorDiv(localMilli, CDateMath.MILLIS_PER_DAY) - firstEpochDay;
+        if (index < 0 || index >= offsetSeconds.length || isIrregular((int) index)) {
+            LocalDateTime local = LocalDateTime.ofEpochSecond(Math.floorDiv(localMilli, 1000L), (int) Math.floorMod(localMilli, 1000L) * 1000000, ZoneOffset.UTC);
+            return local.atZone(zoneId).toInstant().toEpochMilli();
+        }
+        return localMilli - offsetSeconds[(int) index] * 1000L;
+    }
+
+    /**
+     * @param localDateTime 本地时间
+     * @return 毫秒时间戳
+     */
+    public long toEpochMilli(LocalDateTime localDateTime) {
+        long localMilli = localDateTime.toLocalDate().toEpochDay() * CDateMath.MILLIS_PER_DAY
+                + localDateTime.toLocalTime().toNanoOfDay() / 1000000L;
+        return toEpochMilli(localMilli);
+    }
+
+    /**
+     * @param epochMilli 毫秒时间戳
+     * @return 所在日期在表内的下标 范围外返回-1
+     */
+    private int dayIndex(long epochMilli) {
+        long[] starts = dayStartMillis;
+        if (epochMilli < starts[0] || epochMilli >= starts[starts.length - 1]) return -1;
+        int index = (int) ((epochMilli - starts[0]) / CDateMath.MILLIS_PER_DAY);
+        if (index >= offsetSeconds.length) index = offsetSeconds.length - 1;
+        while (starts[index] > epochMilli) index--;
+        while (starts[index + 1] <= epochMilli) index++;
+        return index;
+    }
+
+    private boolean isIrregular(int index) {
+        return (irregular[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,15 @@
+package io.github.campanula.utils.exception;
+
+/**
+ * 调用被熔断 限流 或者并发数限制拒绝时抛出
+ */
+public class CallNotPermittedRuntimeException extends RuntimeException {
+
+    public CallNotPermittedRuntimeException() {
+        super("call not permitted");
+    }
+
+    public CallNotPermittedRuntimeException(String message) {
+        super(message);
+    }
+}
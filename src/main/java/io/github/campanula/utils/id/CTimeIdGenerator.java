@@ -0,0 +1,333 @@
+package io.github.campanula.utils.id;
+
+import io.github.campanula.utils.date.CDateFormatUtil;
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 以时间开头的唯一ID 无锁 可以被多个线程共用
+ * long形式(类似snowflake): 时间戳(毫秒) | 节点 | 毫秒内序列号
+ * 字符串形式: yyyyMMddHHmmss + 定长节点 + 定长秒内序列号 例如 20191214103000 001 000001
+ * 两种形式都带有节点 多个节点各自使用不同的node时生成的ID不会重复
+ * 字符串形式的时间只能使用固定偏移的时区(默认UTC) 有夏令时的时区回拨时同一个本地时间会出现两次 序列号重新开始会产生重复的ID
+ * 两种形式各用一个AtomicLong同时保存时间和序列号 一次CAS完成分配
+ * 序列号用完时借用下一个时间单位 时钟回拨时继续使用上一次的时间 两者都不会超过maxDrift
+ * 借用超过maxDrift时等待时钟追上 时钟回拨超过maxDrift时抛出CampanulaRuntimeException
+ */
+public final class CTimeIdGenerator {
+
+    /**
+     * long形式的起始时间 默认 2020-01-01T00:00:00Z
+     */
+    private long epochMillis = 1577836800000L;
+
+    private int nodeBits = 10;
+    private int sequenceBits = 12;
+    private long node;
+
+    /**
+     * 字符串形式节点和秒内序列号的位数
+     */
+    private int nodeDigits = 3;
+    private int sequenceDigits = 6;
+
+    /**
+     * 允许逻辑时间领先实际时间的最大毫秒数
+     */
+    private long maxDriftMillis = TimeUnit.SECONDS.toMillis(1);
+
+    /**
+     * 字符串形式使用的时区 只能是固定偏移
+     */
+    private ZoneId zoneId = ZoneOffset.UTC;
+
+    private long sequenceMask;
+    private long maxStringSequence;
+    private char[] nodeChars;
+
+    /**
+     * (毫秒 - epochMillis) << sequenceBits | 序列号
+     */
+    private final AtomicLong millisState = new AtomicLong();
+
+    /**
+     * 秒 << STRING_SEQUENCE_BITS | 序列号
+     */
+    private final AtomicLong secondsState = new AtomicLong();
+
+    private static final int STRING_SEQUENCE_BITS = 30;
+
+    /**
+     * 当前秒的 yyyyMMddHHmmss 跨秒才重新格式化
+     */
+    private volatile Prefix prefix = new Prefix(Long.MIN_VALUE, null);
+
+    private static final class Prefix {
+
+        private final long second;
+        private final char[] chars;
+
+        private Prefix(long second, char[] chars) {
+            this.second = second;
+            this.chars = chars;
+        }
+    }
+
+    private CTimeIdGenerator() {
+    }
+
+    /**
+     * @return long形式的ID
+     */
+    public long nextId() {
+        long reserved = reserve(millisState, sequenceBits, sequenceMask, maxDriftMillis, epochMillis, 1L);
+        long time = reserved >>> sequenceBits;
+        long sequence = reserved & sequenceMask;
+        return (time << (nodeBits + sequenceBits)) | (node << sequenceBits) | sequence;
+    }
+
+    /**
+     * @return 字符串形式的ID 长度为 14 + nodeDigits + sequenceDigits
+     */
+    public String nextIdString() {
+        char[] buffer = new char[stringLength()];
+        nextId(buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * 把字符串形式的ID写入buffer
+     * @param buffer 写入的数组 从offset开始至少要有stringLength()位
+     * @param offset 开始写入的下标
+     * @return 写入后的下一个下标
+     */
+    public int nextId(char[] buffer, int offset) {
+        long reserved = reserve(secondsState, STRING_SEQUENCE_BITS, maxStringSequence, Math.max(1L, maxDriftMillis / 1000L), 0L, 1000L);
+        long second = reserved >>> STRING_SEQUENCE_BITS;
+        long sequence = reserved & ((1L << STRING_SEQUENCE_BITS) - 1);
+
+        char[] chars = prefix(second);
+        System.arraycopy(chars, 0, buffer, offset, chars.length);
+        offset += chars.length;
+        System.arraycopy(nodeChars, 0, buffer, offset, nodeChars.length);
+        offset += nodeChars.length;
+        for (int i = offset + sequenceDigits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + sequence % 10);
+            sequence /= 10;
+        }
+        return offset + sequenceDigits;
+    }
+
+    /**
+     * 把字符串形式的ID追加到builder
+     * @param builder 要追加的StringBuilder
+     * @return 传入的builder
+     */
+    public StringBuilder nextId(StringBuilder builder) {
+        char[] buffer = new char[stringLength()];
+        nextId(buffer, 0);
+        return builder.append(buffer);
+    }
+
+    /**
+     * @return 字符串形式ID的长度
+     */
+    public int stringLength() {
+        return CDateFormatUtil.YYYYMMDDHHMMSS_LENGTH + nodeDigits + sequenceDigits;
+    }
+
+    /**
+     * @param id long形式的ID
+     * @return 生成时的毫秒时间戳
+     */
+    public long timestampOf(long id) {
+        return (id >>> (nodeBits + sequenceBits)) + epochMillis;
+    }
+
+    /**
+     * @param id long形式的ID
+     * @return 节点
+     */
+    public long nodeOf(long id) {
+        return (id >>> sequenceBits) & ((1L << nodeBits) - 1);
+    }
+
+    /**
+     * @param id long形式的ID
+     * @return 毫秒内的序列号
+     */
+    public long sequenceOf(long id) {
+        return id & sequenceMask;
+    }
+
+    /**
+     * 分配一个 时间 | 序列号
+     * @param state 保存上一次分配结果的AtomicLong
+     * @param shift 序列号的位数
+     * @param limit 序列号的最大值
+     * @param maxDrift 逻辑时间最多领先实际时间的单位数
+     * @param origin 时间的起点(毫秒)
+     * @param unitMillis 一个时间单位的毫秒数
+     * @return 时间 << 序列号位数 | 序列号
+     */
+    private static long reserve(AtomicLong state, int shift, long limit, long maxDrift, long origin, long unitMillis) {
+        long mask = (1L << shift) - 1;
+        for (;;) {
+            long now = (System.currentTimeMillis() - origin) / unitMillis;
+            long current = state.get();
+            long time = current >>> shift;
+            if (time - now > maxDrift) {
+                throw new CampanulaRuntimeException("clock moved backwards by " + (time - now) * unitMillis + " ms");
+            }
+
+            long next;
+            if (now > time) {
+                next = now << shift;
+            }
+            else if ((current & mask) < limit) {
+                next = current + 1;
+            }
+            else {
+                if (time + 1 - now > maxDrift) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    continue;
+                }
+                next = (time + 1) << shift;
+            }
+            if (state.compareAndSet(current, next)) return next;
+        }
+    }
+
+    private char[] prefix(long second) {
+        Prefix current = this.prefix;
+        if (current.second == second) return current.chars;
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), zoneId);
+        char[] chars = new char[CDateFormatUtil.YYYYMMDDHHMMSS_LENGTH];
+        CDateFormatUtil.yyyyMMddHHmmss(time, chars, 0);
+        this.prefix = new Prefix(second, chars);
+        return chars;
+    }
+
+    /**
+     * ID生成器的初始化以及拼装
+     */
+    public final static class Builder {
+
+        private CTimeIdGenerator generator;
+
+        private Builder() {
+            this.generator = new CTimeIdGenerator();
+        }
+
+        public static Builder aBuilder() {
+            return new Builder();
+        }
+
+        /**
+         * @param node 节点 long形式下不能超过nodeBits 字符串形式下不能超过nodeDigits
+         * @return 拼装类本身
+         */
+        public Builder node(long node) {
+            if (node < 0) throw new CampanulaRuntimeException("node must not be negative");
+            this.generator.node = node;
+            return this;
+        }
+
+        /**
+         * long形式的位数分配 剩余的位数给时间戳 至少要有31位
+         * @param nodeBits 节点的位数
+         * @param sequenceBits 毫秒内序列号的位数
+         * @return 拼装类本身
+         */
+        public Builder bits(int nodeBits, int sequenceBits) {
+            if (nodeBits < 0 || sequenceBits < 1 || 63 - nodeBits - sequenceBits < 31) {
+                throw new CampanulaRuntimeException("at least 31 bits must be left for the timestamp");
+            }
+            this.generator.nodeBits = nodeBits;
+            this.generator.sequenceBits = sequenceBits;
+            return this;
+        }
+
+        /**
+         * 字符串形式的位数
+         * @param nodeDigits 节点的位数 至少1位 不带节点时不同节点生成的字符串ID会重复
+         * @param sequenceDigits 秒内序列号的位数 [1, 9]
+         * @return 拼装类本身
+         */
+        public Builder digits(int nodeDigits, int sequenceDigits) {
+            if (nodeDigits < 1) {
+                throw new CampanulaRuntimeException("nodeDigits must be greater than 0, ids from different nodes would collide");
+            }
+            if (sequenceDigits < 1 || sequenceDigits > 9) {
+                throw new CampanulaRuntimeException("sequenceDigits must be in [1, 9]");
+            }
+            this.generator.nodeDigits = nodeDigits;
+            this.generator.sequenceDigits = sequenceDigits;
+            return this;
+        }
+
+        /**
+         * @param epochMillis long形式的起始时间
+         * @return 拼装类本身
+         */
+        public Builder epoch(long epochMillis) {
+            this.generator.epochMillis = epochMillis;
+            return this;
+        }
+
+        /**
+         * @param maxDrift 允许逻辑时间领先实际时间的最大值 包括借用的时间和时钟回拨
+         * @param unit 时间单位
+         * @return 拼装类本身
+         */
+        public Builder maxDrift(long maxDrift, TimeUnit unit) {
+            this.generator.maxDriftMillis = unit.toMillis(maxDrift);
+            return this;
+        }
+
+        /**
+         * @param zoneId 字符串形式使用的时区 默认UTC 必须是固定偏移的时区 例如ZoneOffset.ofHours(8)
+         * @return 拼装类本身
+         * @throws CampanulaRuntimeException 时区有夏令时等偏移变化时
+         */
+        public Builder zone(ZoneId zoneId) {
+            if (!zoneId.getRules().isFixedOffset()) {
+                throw new CampanulaRuntimeException("zone must have a fixed offset, the same local second may repeat in " + zoneId);
+            }
+            this.generator.zoneId = zoneId;
+            return this;
+        }
+
+        public CTimeIdGenerator getGenerator() {
+            CTimeIdGenerator generator = this.generator;
+            if (generator.node >= 1L << generator.nodeBits) {
+                throw new CampanulaRuntimeException("node does not fit in " + generator.nodeBits + " bits");
+            }
+            if (generator.node >= pow10(generator.nodeDigits)) {
+                throw new CampanulaRuntimeException("node does not fit in " + generator.nodeDigits + " digits");
+            }
+            generator.sequenceMask = (1L << generator.sequenceBits) - 1;
+            generator.maxStringSequence = pow10(generator.sequenceDigits) - 1;
+            generator.nodeChars = new char[generator.nodeDigits];
+            long node = generator.node;
+            for (int i = generator.nodeDigits - 1; i >= 0; i--) {
+                generator.nodeChars[i] = (char) ('0' + node % 10);
+                node /= 10;
+            }
+            return generator;
+        }
+
+        private static long pow10(int digits) {
+            long value = 1L;
+            for (int i = 0; i < digits; i++) value *= 10;
+            return value;
+        }
+    }
+}
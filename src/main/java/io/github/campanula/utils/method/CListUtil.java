@@ -1,12 +1,44 @@
 package io.github.campanula.utils.method;
 
+import io.github.campanula.utils.collection.CFilteredIterable;
+import io.github.campanula.utils.collection.CHashIndex;
+import io.github.campanula.utils.collection.CHyperLogLog;
+import io.github.campanula.utils.collection.CIntHashSet;
+import io.github.campanula.utils.collection.CLongHashSet;
+import io.github.campanula.utils.collection.CMappedList;
+import io.github.campanula.utils.collection.CPartitionList;
+import io.github.campanula.utils.collection.CReservoir;
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
 import io.github.campanula.utils.exception.ObjectEmptyRuntimeException;
 import io.github.campanula.utils.function.VoidMethod;
+import io.github.campanula.utils.param.CTryBatch;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 /**
  * Author Campanula
@@ -14,6 +46,16 @@ import java.util.function.Supplier;
  */
 public final class CListUtil {
 
+    /**
+     * 并行处理时每一块默认的最小元素个数 元素个数不超过它时不会并行
+     */
+    public static final int PARALLEL_MIN_CHUNK = 1024;
+
+    /**
+     * 并行抽样时最多分成的块数 分块只与元素个数有关 结果不受线程池影响
+     */
+    private static final int SAMPLE_CHUNKS = 64;
+
     /**
      * 获取方法返回的对象 如果为空 则返回定义的默认值
      * @param original 返回的对象方法
@@ -230,4 +272,898 @@ public final class CListUtil {
         return oNotNull.apply(t);
     }
 
+    /**
+     * 获取对象并逐个元素转换 元素个数超过PARALLEL_MIN_CHUNK时按下标分块在ForkJoinPool.commonPool()上并行转换 对象为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param mapper   每个元素的转换方法 会在多个线程里同时执行
+     * @param oNull    对象为空执行的方法
+     * @param <T> 原始数据类型
+     * @param <R> 处理后的数据类型
+     * @return 与原集合顺序一致的转换结果 长度固定 不能增删
+     */
+    public static <T, R> List<R> convertParallel(Supplier<List<T>> original, Function<? super T, ? extends R> mapper, Supplier<List<R>> oNull) {
+        return convertParallel(original, mapper, oNull, ForkJoinPool.commonPool(), PARALLEL_MIN_CHUNK);
+    }
+
+    /**
+     * 获取对象并逐个元素转换 按下标分块在pool上并行转换 对象为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param mapper   每个元素的转换方法 会在多个线程里同时执行
+     * @param oNull    对象为空执行的方法
+     * @param pool     执行转换的线程池
+     * @param minChunk 每一块的最小元素个数 元素个数不超过它时在当前线程执行
+     * @param <T> 原始数据类型
+     * @param <R> 处理后的数据类型
+     * @return 与原集合顺序一致的转换结果 长度固定 不能增删
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> List<R> convertParallel(Supplier<List<T>> original, Function<? super T, ? extends R> mapper, Supplier<List<R>> oNull,
+                                                 ForkJoinPool pool, int minChunk) {
+        List<T> t = original.get();
+        if (t == null || t.isEmpty()) return oNull.get();
+        List<T> source = t instanceof RandomAccess ? t : new ArrayList<>(t);
+        Object[] out = new Object[source.size()];
+        runChunks(source.size(), pool, minChunk, (from, to) -> {
+            for (int i = from; i < to; i++) out[i] = mapper.apply(source.get(i));
+        });
+        return (List<R>) Arrays.asList(out);
+    }
+
+    /**
+     * 获取对象并逐个元素处理 元素个数超过PARALLEL_MIN_CHUNK时按下标分块在ForkJoinPool.commonPool()上并行处理 对象为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param consumer 每个元素的处理方法 会在多个线程里同时执行
+     * @param oNull    对象为空执行的方法
+     * @param <T> 处理数据类型
+     */
+    public static <T> void consumeParallel(Supplier<List<T>> original, Consumer<? super T> consumer, VoidMethod oNull) {
+        consumeParallel(original, consumer, oNull, ForkJoinPool.commonPool(), PARALLEL_MIN_CHUNK);
+    }
+
+    /**
+     * 获取对象并逐个元素处理 按下标分块在pool上并行处理 对象为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param consumer 每个元素的处理方法 会在多个线程里同时执行
+     * @param oNull    对象为空执行的方法
+     * @param pool     执行处理的线程池
+     * @param minChunk 每一块的最小元素个数 元素个数不超过它时在当前线程执行
+     * @param <T> 处理数据类型
+     */
+    public static <T> void consumeParallel(Supplier<List<T>> original, Consumer<? super T> consumer, VoidMethod oNull, ForkJoinPool pool, int minChunk) {
+        List<T> t = original.get();
+        if (t == null || t.isEmpty()) {
+            oNull.method();
+            return;
+        }
+        List<T> source = t instanceof RandomAccess ? t : new ArrayList<>(t);
+        runChunks(source.size(), pool, minChunk, (from, to) -> {
+            for (int i = from; i < to; i++) consumer.accept(source.get(i));
+        });
+    }
+
+    /**
+     * 获取对象并返回转换后的只读视图 访问元素时才转换 不会创建新的集合 对象为空时执行为空的方法
+     * 原集合不支持随机访问(例如LinkedList)时会先复制成ArrayList
+     * @param original 获取对象的方法
+     * @param mapper   每个元素的转换方法
+     * @param oNull    对象为空执行的方法
+     * @param <T> 原始数据类型
+     * @param <R> 处理后的数据类型
+     * @return 转换后的视图 支持随机访问和subList
+     */
+    public static <T, R> List<R> convertView(Supplier<List<T>> original, Function<? super T, ? extends R> mapper, Supplier<List<R>> oNull) {
+        return convertView(original, mapper, oNull, false);
+    }
+
+    /**
+     * 获取对象并返回转换后的只读视图 访问元素时才转换 不会创建新的集合 对象为空时执行为空的方法
+     * 原集合不支持随机访问(例如LinkedList)时会先复制成ArrayList
+     * @param original 获取对象的方法
+     * @param mapper   每个元素的转换方法
+     * @param oNull    对象为空执行的方法
+     * @param memoize  是否缓存每个下标的转换结果 转换开销大且会重复访问时使用 缓存后视图不是线程安全的
+     * @param <T> 原始数据类型
+     * @param <R> 处理后的数据类型
+     * @return 转换后的视图 支持随机访问和subList
+     */
+    public static <T, R> List<R> convertView(Supplier<List<T>> original, Function<? super T, ? extends R> mapper, Supplier<List<R>> oNull, boolean memoize) {
+        List<T> t = original.get();
+        if (t == null || t.isEmpty()) return oNull.get();
+        return new CMappedList<>(t, mapper, memoize);
+    }
+
+    /**
+     * 获取对象并返回过滤 转换后的只读视图 遍历时才过滤和转换 对象为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param filter   保留满足条件的元素
+     * @param mapper   满足条件的元素的转换方法
+     * @param oNull    对象为空执行的方法
+     * @param <T> 原始数据类型
+     * @param <R> 处理后的数据类型
+     * @return 过滤 转换后的视图
+     */
+    public static <T, R> Iterable<R> filterView(Supplier<List<T>> original, Predicate<? super T> filter, Function<? super T, ? extends R> mapper, Supplier<Iterable<R>> oNull) {
+        List<T> t = original.get();
+        if (t == null || t.isEmpty()) return oNull.get();
+        return new CFilteredIterable<>(t, filter, mapper);
+    }
+
+    /**
+     * 按固定大小分批 每一批都是原集合的subList视图 不会复制元素
+     * @param list      原集合 不支持随机访问时会先复制成ArrayList
+     * @param batchSize 每一批的大小
+     * @param <T> 元素类型
+     * @return 分批后的只读视图 原集合为空时返回空集合
+     */
+    public static <T> List<List<T>> partition(List<T> list, int batchSize) {
+        if (list == null || list.isEmpty()) return Collections.emptyList();
+        return new CPartitionList<>(list instanceof RandomAccess ? list : new ArrayList<>(list), batchSize);
+    }
+
+    /**
+     * 获取对象 按固定大小分批后在当前线程逐批处理 某一批失败不影响其他批
+     * Error(例如OutOfMemoryError)不会被记为失败 直接抛出 不再处理后面的批
+     * @param original  获取对象的方法
+     * @param batchSize 每一批的大小
+     * @param consumer  每一批的处理方法 例如JDBC的批量插入
+     * @param <T> 元素类型
+     * @return 成功的批和失败的批分开存放的结果 失败下标为批的下标 对象为空时没有任何批
+     */
+    public static <T> CTryBatch<List<T>> consumeInBatches(Supplier<List<T>> original, int batchSize, Consumer<List<T>> consumer) {
+        return consumeInBatches(original, batchSize, consumer, null, 1);
+    }
+
+    /**
+     * 获取对象 按固定大小分批后在executor上处理 同时执行的批数不超过maxInFlight 某一批失败不影响其他批
+     * 提交时超过maxInFlight会在当前线程等待 所以排队中的任务也不会超过maxInFlight 方法在所有批处理完后返回
+     * @param original    获取对象的方法
+     * @param batchSize   每一批的大小
+     * @param consumer    每一批的处理方法 会在多个线程里同时执行
+     * @param executor    执行的线程池 为空时在当前线程逐批执行
+     * @param maxInFlight 同时执行的最大批数
+     * @param <T> 元素类型
+     * @return 成功的批和失败的批分开存放的结果 失败下标为批的下标 线程池拒绝的批也记为失败
+     *         在线程池上抛出Error的批同样记为失败 Error被CampanulaRuntimeException包裹一层
+     *         executor为空时Error直接抛出 不再处理后面的批
+     * @throws CampanulaRuntimeException 等待时线程被中断
+     */
+    public static <T> CTryBatch<List<T>> consumeInBatches(Supplier<List<T>> original, int batchSize, Consumer<List<T>> consumer,
+                                                          Executor executor, int maxInFlight) {
+        if (maxInFlight < 1) throw new CampanulaRuntimeException("maxInFlight must be greater than 0");
+        List<List<T>> batches = partition(original.get(), batchSize);
+        int count = batches.size();
+        Exception[] errors = new Exception[count];
+
+        if (executor == null) {
+            for (int i = 0; i < count; i++) {
+                try {
+                    consumer.accept(batches.get(i));
+                }
+                catch (Exception e) {
+                    errors[i] = e;
+                }
+            }
+        }
+        else {
+            Semaphore permits = new Semaphore(maxInFlight);
+            try {
+                for (int i = 0; i < count; i++) {
+                    permits.acquire();
+                    int index = i;
+                    try {
+                        executor.execute(() -> {
+                            try {
+                                consumer.accept(batches.get(index));
+                            }
+                            catch (Throwable e) {
+                                errors[index] = asException(e);
+                            }
+                            finally {
+                                permits.release();
+                            }
+                        });
+                    }
+                    catch (RejectedExecutionException e) {
+                        errors[index] = e;
+                        permits.release();
+                    }
+                }
+                // 全部许可都拿回来即所有批都执行完了 release的happens-before保证可以看到errors的写入
+                permits.acquire(maxInFlight);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CampanulaRuntimeException(e);
+            }
+        }
+
+        List<List<T>> successes = new ArrayList<>(count);
+        int failed = 0;
+        for (Exception error : errors) {
+            if (error != null) failed++;
+        }
+        int[] indexes = new int[failed];
+        List<Exception> failures = new ArrayList<>(failed);
+        for (int i = 0, f = 0; i < count; i++) {
+            if (errors[i] == null) {
+                successes.add(batches.get(i));
+            }
+            else {
+                indexes[f++] = i;
+                failures.add(errors[i]);
+            }
+        }
+        return new CTryBatch<>(successes, indexes, failures);
+    }
+
+    /**
+     * 线程池里抛出的Error没有人能接住 包裹成CampanulaRuntimeException 保证失败的批不会被当作成功
+     */
+    private static Exception asException(Throwable e) {
+        return e instanceof Exception ? (Exception) e : new CampanulaRuntimeException(e);
+    }
+
+    /**
+     * 按key建立可以反复使用的哈希索引
+     * @param list 要建立索引的集合
+     * @param key  获取key的方法
+     * @param <K> key的类型
+     * @param <V> 元素类型
+     * @return 索引
+     */
+    public static <K, V> CHashIndex<K, V> index(List<V> list, Function<? super V, ? extends K> key) {
+        return CHashIndex.of(list == null ? Collections.emptyList() : list, key);
+    }
+
+    /**
+     * 内关联 只保留两边key相等的组合 key为null的元素不参与关联
+     * 在较小的一边建立哈希索引 用较大的一边逐个查找 结果按较大一边的顺序排列
+     * @param left     左边的集合
+     * @param right    右边的集合
+     * @param leftKey  获取左边key的方法
+     * @param rightKey 获取右边key的方法
+     * @param combiner 组合左右两边元素的方法
+     * @param <L> 左边的元素类型
+     * @param <R> 右边的元素类型
+     * @param <K> key的类型
+     * @param <O> 组合后的类型
+     * @return 关联结果
+     */
+    public static <L, R, K, O> List<O> innerJoin(List<L> left, List<R> right, Function<? super L, ? extends K> leftKey,
+                                                 Function<? super R, ? extends K> rightKey, BiFunction<? super L, ? super R, ? extends O> combiner) {
+        return innerJoin(left, right, leftKey, rightKey, combiner, null);
+    }
+
+    /**
+     * 内关联 只保留两边key相等的组合 key为null的元素不参与关联
+     * 在较小的一边建立哈希索引 用较大的一边逐个查找 结果按较大一边的顺序排列
+     * @param left     左边的集合
+     * @param right    右边的集合
+     * @param leftKey  获取左边key的方法
+     * @param rightKey 获取右边key的方法
+     * @param combiner 组合左右两边元素的方法 并行时会在多个线程里同时执行
+     * @param pool     查找阶段分块并行执行的线程池 为空时在当前线程执行
+     * @param <L> 左边的元素类型
+     * @param <R> 右边的元素类型
+     * @param <K> key的类型
+     * @param <O> 组合后的类型
+     * @return 关联结果
+     */
+    public static <L, R, K, O> List<O> innerJoin(List<L> left, List<R> right, Function<? super L, ? extends K> leftKey,
+                                                 Function<? super R, ? extends K> rightKey, BiFunction<? super L, ? super R, ? extends O> combiner,
+                                                 ForkJoinPool pool) {
+        if (left == null || left.isEmpty() || right == null || right.isEmpty()) return new ArrayList<>();
+        if (right.size() <= left.size()) {
+            return probe(left, leftKey, CHashIndex.of(right, rightKey), combiner, false, pool);
+        }
+        return probe(right, rightKey, CHashIndex.of(left, leftKey), (R r, L l) -> combiner.apply(l, r), false, pool);
+    }
+
+    /**
+     * 用已经建立好的索引做内关联 结果按probe的顺序排列
+     * @param probe    逐个查找的集合
+     * @param probeKey 获取probe中元素key的方法
+     * @param index    建立好的索引
+     * @param combiner 组合两边元素的方法 并行时会在多个线程里同时执行
+     * @param pool     分块并行执行的线程池 为空时在当前线程执行
+     * @param <P> 查找的元素类型
+     * @param <V> 索引中的元素类型
+     * @param <K> key的类型
+     * @param <O> 组合后的类型
+     * @return 关联结果
+     */
+    public static <P, V, K, O> List<O> innerJoin(List<P> probe, Function<? super P, ? extends K> probeKey, CHashIndex<K, V> index,
+                                                 BiFunction<? super P, ? super V, ? extends O> combiner, ForkJoinPool pool) {
+        if (probe == null || probe.isEmpty()) return new ArrayList<>();
+        return probe(probe, probeKey, index, combiner, false, pool);
+    }
+
+    /**
+     * 左关联 左边的元素全部保留 没有匹配时combiner的右边参数为null 结果按左边的顺序排列
+     * 在右边建立哈希索引
+     * @param left     左边的集合
+     * @param right    右边的集合
+     * @param leftKey  获取左边key的方法
+     * @param rightKey 获取右边key的方法
+     * @param combiner 组合左右两边元素的方法
+     * @param <L> 左边的元素类型
+     * @param <R> 右边的元素类型
+     * @param <K> key的类型
+     * @param <O> 组合后的类型
+     * @return 关联结果
+     */
+    public static <L, R, K, O> List<O> leftJoin(List<L> left, List<R> right, Function<? super L, ? extends K> leftKey,
+                                                Function<? super R, ? extends K> rightKey, BiFunction<? super L, ? super R, ? extends O> combiner) {
+        if (left == null || left.isEmpty()) return new ArrayList<>();
+        return probe(left, leftKey, index(right, rightKey), combiner, true, null);
+    }
+
+    /**
+     * 用已经建立好的索引做左关联 probe的元素全部保留 没有匹配时combiner的右边参数为null
+     * @param probe    逐个查找的集合
+     * @param probeKey 获取probe中元素key的方法
+     * @param index    建立好的索引
+     * @param combiner 组合两边元素的方法 并行时会在多个线程里同时执行
+     * @param pool     分块并行执行的线程池 为空时在当前线程执行
+     * @param <P> 查找的元素类型
+     * @param <V> 索引中的元素类型
+     * @param <K> key的类型
+     * @param <O> 组合后的类型
+     * @return 关联结果
+     */
+    public static <P, V, K, O> List<O> leftJoin(List<P> probe, Function<? super P, ? extends K> probeKey, CHashIndex<K, V> index,
+                                                BiFunction<? super P, ? super V, ? extends O> combiner, ForkJoinPool pool) {
+        if (probe == null || probe.isEmpty()) return new ArrayList<>();
+        return probe(probe, probeKey, index, combiner, true, pool);
+    }
+
+    /**
+     * 半关联 保留在右边有相同key的左边元素 每个左边元素最多保留一次 结果按左边的顺序排列
+     * @param left     左边的集合
+     * @param right    右边的集合
+     * @param leftKey  获取左边key的方法
+     * @param rightKey 获取右边key的方法
+     * @param <L> 左边的元素类型
+     * @param <R> 右边的元素类型
+     * @param <K> key的类型
+     * @return 关联结果
+     */
+    public static <L, R, K> List<L> semiJoin(List<L> left, List<R> right, Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return filterByKeys(left, right, leftKey, rightKey, true);
+    }
+
+    /**
+     * 反关联 保留在右边没有相同key的左边元素 结果按左边的顺序排列
+     * @param left     左边的集合
+     * @param right    右边的集合
+     * @param leftKey  获取左边key的方法
+     * @param rightKey 获取右边key的方法
+     * @param <L> 左边的元素类型
+     * @param <R> 右边的元素类型
+     * @param <K> key的类型
+     * @return 关联结果
+     */
+    public static <L, R, K> List<L> antiJoin(List<L> left, List<R> right, Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return filterByKeys(left, right, leftKey, rightKey, false);
+    }
+
+    private static <L, R, K> List<L> filterByKeys(List<L> left, List<R> right, Function<? super L, ? extends K> leftKey,
+                                                  Function<? super R, ? extends K> rightKey, boolean keepMatched) {
+        if (left == null || left.isEmpty()) return new ArrayList<>();
+        int size = right == null ? 0 : right.size();
+        HashSet<K> keys = new HashSet<>((int) (size / 0.75F) + 1);
+        if (right != null) {
+            for (R r : right) {
+                K k = rightKey.apply(r);
+                if (k != null) keys.add(k);
+            }
+        }
+        List<L> out = new ArrayList<>();
+        for (L l : left) {
+            K k = leftKey.apply(l);
+            if ((k != null && keys.contains(k)) == keepMatched) out.add(l);
+        }
+        return out;
+    }
+
+    /**
+     * 用probe的每个元素到索引里查找 并行时按固定大小分块 每块的结果最后按顺序拼接
+     */
+    @SuppressWarnings("unchecked")
+    private static <P, V, K, O> List<O> probe(List<P> probe, Function<? super P, ? extends K> probeKey, CHashIndex<K, V> index,
+                                              BiFunction<? super P, ? super V, ? extends O> combiner, boolean keepUnmatched, ForkJoinPool pool) {
+        List<P> source = probe instanceof RandomAccess ? probe : new ArrayList<>(probe);
+        int size = source.size();
+        if (pool == null || size <= PARALLEL_MIN_CHUNK) {
+            List<O> out = new ArrayList<>(size);
+            probeRange(source, probeKey, index, combiner, keepUnmatched, 0, size, out);
+            return out;
+        }
+
+        int chunk = Math.max(PARALLEL_MIN_CHUNK, size / (pool.getParallelism() * 4));
+        int chunks = (size + chunk - 1) / chunk;
+        Object[] parts = new Object[chunks];
+        ChunkTask.run(pool, 0, chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                int start = c * chunk;
+                int end = Math.min(start + chunk, size);
+                List<O> part = new ArrayList<>(end - start);
+                probeRange(source, probeKey, index, combiner, keepUnmatched, start, end, part);
+                parts[c] = part;
+            }
+        });
+
+        int total = 0;
+        for (Object part : parts) total += ((List<O>) part).size();
+        List<O> out = new ArrayList<>(total);
+        for (Object part : parts) out.addAll((List<O>) part);
+        return out;
+    }
+
+    private static <P, V, K, O> void probeRange(List<P> source, Function<? super P, ? extends K> probeKey, CHashIndex<K, V> index,
+                                                BiFunction<? super P, ? super V, ? extends O> combiner, boolean keepUnmatched,
+                                                int from, int to, List<O> out) {
+        for (int i = from; i < to; i++) {
+            P p = source.get(i);
+            K k = probeKey.apply(p);
+            if (k == null || !index.contains(k)) {
+                if (keepUnmatched) out.add(combiner.apply(p, null));
+                continue;
+            }
+            index.forEach(k, v -> out.add(combiner.apply(p, v)));
+        }
+    }
+
+    /**
+     * 按comparator的顺序取前k个 用大小为k的堆实现 O(n log k) 不会对整个集合排序
+     * 取最大的k个时传入倒序的comparator
+     * @param list       原集合 不会被修改
+     * @param k          取的个数
+     * @param comparator 排序规则
+     * @param <T> 元素类型
+     * @return 前k个元素 按comparator排好序 元素不足k个时返回全部
+     */
+    public static <T> List<T> topK(List<T> list, int k, Comparator<? super T> comparator) {
+        return topK(list, k, comparator, null);
+    }
+
+    /**
+     * 按comparator的顺序取前k个 并行时每块各自用大小为k的堆取前k个 最后再合并
+     * @param list       原集合 不会被修改
+     * @param k          取的个数
+     * @param comparator 排序规则
+     * @param pool       分块并行执行的线程池 为空时在当前线程执行
+     * @param <T> 元素类型
+     * @return 前k个元素 按comparator排好序 元素不足k个时返回全部
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> topK(List<T> list, int k, Comparator<? super T> comparator, ForkJoinPool pool) {
+        if (list == null || list.isEmpty() || k <= 0) return new ArrayList<>();
+        List<T> source = list instanceof RandomAccess ? list : new ArrayList<>(list);
+        int size = source.size();
+        if (pool == null || size <= PARALLEL_MIN_CHUNK || size <= k) {
+            return drain(heap(source, 0, size, k, comparator, null), comparator);
+        }
+
+        int chunk = Math.max(Math.max(PARALLEL_MIN_CHUNK, k), size / (pool.getParallelism() * 4));
+        int chunks = (size + chunk - 1) / chunk;
+        Object[] heaps = new Object[chunks];
+        ChunkTask.run(pool, 0, chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                heaps[c] = heap(source, c * chunk, Math.min(c * chunk + chunk, size), k, comparator, null);
+            }
+        });
+
+        PriorityQueue<T> merged = (PriorityQueue<T>) heaps[0];
+        for (int c = 1; c < chunks; c++) {
+            List<T> other = new ArrayList<>((PriorityQueue<T>) heaps[c]);
+            merged = heap(other, 0, other.size(), k, comparator, merged);
+        }
+        return drain(merged, comparator);
+    }
+
+    /**
+     * 用大小为k的大顶堆保留 [from, to) 中按comparator最小的k个
+     */
+    private static <T> PriorityQueue<T> heap(List<T> source, int from, int to, int k, Comparator<? super T> comparator, PriorityQueue<T> heap) {
+        if (heap == null) heap = new PriorityQueue<>(Math.min(k, to - from) + 1, Collections.reverseOrder(comparator));
+        for (int i = from; i < to; i++) {
+            T t = source.get(i);
+            if (heap.size() < k) {
+                heap.add(t);
+            }
+            else if (comparator.compare(t, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(t);
+            }
+        }
+        return heap;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> drain(PriorityQueue<T> heap, Comparator<? super T> comparator) {
+        Object[] out = heap.toArray();
+        Arrays.sort(out, (Comparator<Object>) comparator);
+        return new ArrayList<>((List<T>) Arrays.asList(out));
+    }
+
+    /**
+     * 取按comparator排序后下标为n的元素 快速选择 平均O(n) 不会对整个集合排序
+     * @param list       原集合 不会被修改
+     * @param n          排序后的下标 从0开始
+     * @param comparator 排序规则
+     * @param <T> 元素类型
+     * @return 排序后下标为n的元素
+     * @throws IndexOutOfBoundsException n不在集合范围内
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T select(List<T> list, int n, Comparator<? super T> comparator) {
+        int size = list == null ? 0 : list.size();
+        if (n < 0 || n >= size) throw new IndexOutOfBoundsException("Index: " + n + ", Size: " + size);
+        Object[] a = list.toArray();
+        Comparator<Object> c = (Comparator<Object>) comparator;
+        int low = 0;
+        int high = a.length - 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (low < high) {
+            Object pivot = a[low + random.nextInt(high - low + 1)];
+            // 三路划分 [low, lt) 小于 [lt, gt] 等于 (gt, high] 大于
+            int lt = low;
+            int gt = high;
+            int i = low;
+            while (i <= gt) {
+                int cmp = c.compare(a[i], pivot);
+                if (cmp < 0) swap(a, lt++, i++);
+                else if (cmp > 0) swap(a, i, gt--);
+                else i++;
+            }
+            if (n < lt) high = lt - 1;
+            else if (n > gt) low = gt + 1;
+            else return (T) a[n];
+        }
+        return (T) a[n];
+    }
+
+    private static void swap(Object[] a, int i, int j) {
+        Object t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /**
+     * 合并多个已经按comparator排好序的集合 用大小为集合个数的堆 O(n log k) 不需要重新排序
+     * @param lists      已经排好序的集合
+     * @param comparator 排序规则
+     * @param <T> 元素类型
+     * @return 合并后排好序的集合 相等的元素按集合的先后顺序排列
+     */
+    public static <T> List<T> mergeSorted(List<? extends List<? extends T>> lists, Comparator<? super T> comparator) {
+        if (lists == null || lists.isEmpty()) return new ArrayList<>();
+        int total = 0;
+        List<Cursor<T>> cursors = new ArrayList<>(lists.size());
+        for (int i = 0; i < lists.size(); i++) {
+            List<? extends T> sorted = lists.get(i);
+            if (sorted == null || sorted.isEmpty()) continue;
+            total += sorted.size();
+            cursors.add(new Cursor<>(sorted.iterator(), i));
+        }
+        List<T> out = new ArrayList<>(total);
+        if (cursors.isEmpty()) return out;
+        if (cursors.size() == 1) {
+            out.addAll(lists.get(cursors.get(0).order));
+            return out;
+        }
+
+        PriorityQueue<Cursor<T>> heap = new PriorityQueue<>(cursors.size(), (a, b) -> {
+            int cmp = comparator.compare(a.head, b.head);
+            return cmp != 0 ? cmp : Integer.compare(a.order, b.order);
+        });
+        heap.addAll(cursors);
+        while (!heap.isEmpty()) {
+            Cursor<T> cursor = heap.poll();
+            out.add(cursor.head);
+            if (cursor.advance()) heap.add(cursor);
+        }
+        return out;
+    }
+
+    /**
+     * 合并时每个集合当前的位置
+     */
+    private static final class Cursor<T> {
+
+        private final Iterator<? extends T> iterator;
+        private final int order;
+        private T head;
+
+        private Cursor(Iterator<? extends T> iterator, int order) {
+            this.iterator = iterator;
+            this.order = order;
+            this.head = iterator.next();
+        }
+
+        private boolean advance() {
+            if (!iterator.hasNext()) return false;
+            head = iterator.next();
+            return true;
+        }
+    }
+
+    /**
+     * 按long类型的key去重 保留第一次出现的元素 用CLongHashSet记录出现过的key 不装箱
+     * @param list 原集合 不会被修改
+     * @param key  获取key的方法
+     * @param <T> 元素类型
+     * @return 去重后的集合 顺序不变
+     */
+    public static <T> List<T> distinctByLong(List<T> list, ToLongFunction<? super T> key) {
+        if (list == null || list.isEmpty()) return new ArrayList<>();
+        CLongHashSet seen = new CLongHashSet(list.size());
+        List<T> out = new ArrayList<>();
+        for (T t : list) {
+            if (seen.add(key.applyAsLong(t))) out.add(t);
+        }
+        return out;
+    }
+
+    /**
+     * 按int类型的key去重 保留第一次出现的元素 用CIntHashSet记录出现过的key 不装箱
+     * @param list 原集合 不会被修改
+     * @param key  获取key的方法
+     * @param <T> 元素类型
+     * @return 去重后的集合 顺序不变
+     */
+    public static <T> List<T> distinctByInt(List<T> list, ToIntFunction<? super T> key) {
+        if (list == null || list.isEmpty()) return new ArrayList<>();
+        CIntHashSet seen = new CIntHashSet(list.size());
+        List<T> out = new ArrayList<>();
+        for (T t : list) {
+            if (seen.add(key.applyAsInt(t))) out.add(t);
+        }
+        return out;
+    }
+
+    /**
+     * 精确计算不同key的个数
+     * @param list 原集合
+     * @param key  获取key的方法
+     * @param <T> 元素类型
+     * @return 不同key的个数
+     */
+    public static <T> int countDistinct(List<T> list, ToLongFunction<? super T> key) {
+        if (list == null || list.isEmpty()) return 0;
+        CLongHashSet seen = new CLongHashSet(list.size());
+        for (T t : list) seen.add(key.applyAsLong(t));
+        return seen.size();
+    }
+
+    /**
+     * 近似计算不同key的个数 内存固定为2^precision个字节
+     * @param list      原集合
+     * @param key       获取key的方法 字符串等可以使用64位的哈希值
+     * @param precision 精度 [4, 18] 14时误差约0.8%
+     * @param <T> 元素类型
+     * @return 不同key个数的估计值
+     */
+    public static <T> long countDistinctApprox(List<T> list, ToLongFunction<? super T> key, int precision) {
+        return sketch(list, key, precision, null).estimate();
+    }
+
+    /**
+     * 计算可以合并的近似计数 用于多个批次的结果合并
+     * @param list      原集合
+     * @param key       获取key的方法
+     * @param precision 精度 [4, 18]
+     * @param pool      分块并行执行的线程池 每块单独计算后合并 为空时在当前线程执行
+     * @param <T> 元素类型
+     * @return 近似计数
+     */
+    public static <T> CHyperLogLog sketch(List<T> list, ToLongFunction<? super T> key, int precision, ForkJoinPool pool) {
+        CHyperLogLog hll = new CHyperLogLog(precision);
+        if (list == null || list.isEmpty()) return hll;
+        List<T> source = list instanceof RandomAccess ? list : new ArrayList<>(list);
+        int size = source.size();
+        if (pool == null || size <= PARALLEL_MIN_CHUNK) {
+            for (T t : source) hll.add(key.applyAsLong(t));
+            return hll;
+        }
+
+        int chunk = Math.max(PARALLEL_MIN_CHUNK, size / (pool.getParallelism() * 4));
+        int chunks = (size + chunk - 1) / chunk;
+        CHyperLogLog[] parts = new CHyperLogLog[chunks];
+        ChunkTask.run(pool, 0, chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                CHyperLogLog part = new CHyperLogLog(precision);
+                for (int i = c * chunk, end = Math.min(i + chunk, size); i < end; i++) part.add(key.applyAsLong(source.get(i)));
+                parts[c] = part;
+            }
+        });
+        for (CHyperLogLog part : parts) hll.merge(part);
+        return hll;
+    }
+
+    /**
+     * 等概率抽取k个 一次遍历 不会打乱整个集合
+     * @param list 原集合 不会被修改
+     * @param k    抽取的个数
+     * @param seed 随机数种子 结果可以重现
+     * @param <T> 元素类型
+     * @return 抽到的元素 元素不足k个时返回全部 顺序没有意义
+     */
+    public static <T> List<T> sample(List<T> list, int k, long seed) {
+        return sample(list, k, seed, null);
+    }
+
+    /**
+     * 等概率抽取k个 按元素个数固定分块 每块单独抽样后合并 每块的种子由seed生成
+     * 分块只与元素个数有关 相同的seed在不同的线程池上 以及与串行执行时 结果都相同
+     * @param list 原集合 不会被修改
+     * @param k    抽取的个数
+     * @param seed 随机数种子 结果可以重现
+     * @param pool 分块并行执行的线程池 为空时在当前线程执行
+     * @param <T> 元素类型
+     * @return 抽到的元素 元素不足k个时返回全部 顺序没有意义
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> sample(List<T> list, int k, long seed, ForkJoinPool pool) {
+        if (list == null || list.isEmpty()) return new ArrayList<>();
+        List<T> source = list instanceof RandomAccess ? list : new ArrayList<>(list);
+        int size = source.size();
+        if (size <= PARALLEL_MIN_CHUNK) {
+            CReservoir<T> reservoir = CReservoir.of(k, seed);
+            reservoir.addAll(source);
+            return reservoir.getSample();
+        }
+
+        int chunk = Math.max(PARALLEL_MIN_CHUNK, (size + SAMPLE_CHUNKS - 1) / SAMPLE_CHUNKS);
+        int chunks = (size + chunk - 1) / chunk;
+        long[] seeds = new long[chunks];
+        Random random = new Random(seed);
+        for (int c = 0; c < chunks; c++) seeds[c] = random.nextLong();
+        Object[] parts = new Object[chunks];
+        ChunkTask.ChunkAction action = (from, to) -> {
+            for (int c = from; c < to; c++) {
+                CReservoir<T> part = CReservoir.of(k, seeds[c]);
+                part.addAll(source.subList(c * chunk, Math.min(c * chunk + chunk, size)));
+                parts[c] = part;
+            }
+        };
+        if (pool == null) action.apply(0, chunks);
+        else ChunkTask.run(pool, 0, chunks, 1, action);
+        CReservoir<T> reservoir = (CReservoir<T>) parts[0];
+        for (int c = 1; c < chunks; c++) reservoir.merge((CReservoir<T>) parts[c]);
+        return reservoir.getSample();
+    }
+
+    /**
+     * 等概率抽取k个 只遍历一次 不需要知道总数
+     * @param iterator 输入
+     * @param k        抽取的个数
+     * @param seed     随机数种子
+     * @param <T> 元素类型
+     * @return 抽到的元素 顺序没有意义
+     */
+    public static <T> List<T> sample(Iterator<? extends T> iterator, int k, long seed) {
+        CReservoir<T> reservoir = CReservoir.of(k, seed);
+        reservoir.addAll(iterator);
+        return reservoir.getSample();
+    }
+
+    /**
+     * 等概率抽取k个 并行流的每一段单独抽样后合并
+     * @param stream 输入
+     * @param k      抽取的个数
+     * @param seed   随机数种子 只有串行流的结果可以重现
+     * @param <T> 元素类型
+     * @return 抽到的元素 顺序没有意义
+     */
+    public static <T> List<T> sample(Stream<T> stream, int k, long seed) {
+        return stream.collect(CReservoir.collector(k, seed));
+    }
+
+    /**
+     * 按权重抽取k个 不放回 每次抽到的概率与权重成正比
+     * @param list   原集合 不会被修改
+     * @param k      抽取的个数
+     * @param weight 获取权重的方法 权重为0的元素不会被抽到
+     * @param seed   随机数种子
+     * @param <T> 元素类型
+     * @return 抽到的元素 顺序没有意义
+     */
+    public static <T> List<T> sampleWeighted(List<T> list, int k, ToDoubleFunction<? super T> weight, long seed) {
+        if (list == null || list.isEmpty()) return new ArrayList<>();
+        return sampleWeighted(list.iterator(), k, weight, seed);
+    }
+
+    /**
+     * 按权重抽取k个 不放回 只遍历一次 不需要知道总数
+     * @param iterator 输入
+     * @param k        抽取的个数
+     * @param weight   获取权重的方法 权重为0的元素不会被抽到
+     * @param seed     随机数种子
+     * @param <T> 元素类型
+     * @return 抽到的元素 顺序没有意义
+     */
+    public static <T> List<T> sampleWeighted(Iterator<? extends T> iterator, int k, ToDoubleFunction<? super T> weight, long seed) {
+        CReservoir<T> reservoir = CReservoir.of(k, seed);
+        while (iterator.hasNext()) {
+            T t = iterator.next();
+            reservoir.add(t, weight.applyAsDouble(t));
+        }
+        return reservoir.getSample();
+    }
+
+    /**
+     * 按权重抽取k个 不放回 按流的顺序逐个处理 并行流也不会并行抽样
+     * @param stream 输入
+     * @param k      抽取的个数
+     * @param weight 获取权重的方法 权重为0的元素不会被抽到
+     * @param seed   随机数种子
+     * @param <T> 元素类型
+     * @return 抽到的元素 顺序没有意义
+     */
+    public static <T> List<T> sampleWeighted(Stream<T> stream, int k, ToDoubleFunction<? super T> weight, long seed) {
+        return sampleWeighted(stream.iterator(), k, weight, seed);
+    }
+
+    /**
+     * 分层抽样 每个key各自等概率抽取perKey个 数量少的key也能抽到
+     * @param list   原集合 不会被修改
+     * @param key    获取分层key的方法
+     * @param perKey 每个key抽取的个数
+     * @param seed   随机数种子
+     * @param <T> 元素类型
+     * @param <K> key的类型
+     * @return key按第一次出现的顺序 值为抽到的元素
+     */
+    public static <T, K> Map<K, List<T>> sampleByKey(List<T> list, Function<? super T, ? extends K> key, int perKey, long seed) {
+        if (list == null || list.isEmpty()) return new LinkedHashMap<>();
+        return sampleByKey(list.iterator(), key, perKey, seed);
+    }
+
+    /**
+     * 分层抽样 只遍历一次 每个key各自等概率抽取perKey个
+     * @param iterator 输入
+     * @param key      获取分层key的方法
+     * @param perKey   每个key抽取的个数
+     * @param seed     随机数种子
+     * @param <T> 元素类型
+     * @param <K> key的类型
+     * @return key按第一次出现的顺序 值为抽到的元素
+     */
+    public static <T, K> Map<K, List<T>> sampleByKey(Iterator<? extends T> iterator, Function<? super T, ? extends K> key, int perKey, long seed) {
+        Random random = new Random(seed);
+        Map<K, CReservoir<T>> strata = new LinkedHashMap<>();
+        while (iterator.hasNext()) {
+            T t = iterator.next();
+            strata.computeIfAbsent(key.apply(t), k -> CReservoir.of(perKey, random)).add(t);
+        }
+        Map<K, List<T>> out = new LinkedHashMap<>();
+        strata.forEach((k, reservoir) -> out.put(k, reservoir.getSample()));
+        return out;
+    }
+
+    /**
+     * 分层抽样 按流的顺序逐个处理 并行流也不会并行抽样
+     * @param stream 输入
+     * @param key    获取分层key的方法
+     * @param perKey 每个key抽取的个数
+     * @param seed   随机数种子
+     * @param <T> 元素类型
+     * @param <K> key的类型
+     * @return key按第一次出现的顺序 值为抽到的元素
+     */
+    public static <T, K> Map<K, List<T>> sampleByKey(Stream<T> stream, Function<? super T, ? extends K> key, int perKey, long seed) {
+        return sampleByKey(stream.iterator(), key, perKey, seed);
+    }
+
+    private static void runChunks(int size, ForkJoinPool pool, int minChunk, ChunkTask.ChunkAction action) {
+        int min = Math.max(1, minChunk);
+        if (size <= min) {
+            action.apply(0, size);
+            return;
+        }
+        int chunk = Math.max(min, size / (pool.getParallelism() * 4));
+        ChunkTask.run(pool, 0, size, chunk, action);
+    }
 }
@@ -0,0 +1,233 @@
+package io.github.campanula.utils.method;
+
+import io.github.campanula.utils.collection.CPrimitiveList;
+import io.github.campanula.utils.exception.ObjectEmptyRuntimeException;
+import io.github.campanula.utils.function.VoidMethod;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 与CListUtil相同的处理方式 用于CLongList CIntList CDoubleList等基本类型列表 不装箱
+ */
+public final class CPrimitiveListUtil {
+
+    /**
+     * 获取方法返回的对象 如果为空 则返回定义的默认值
+     * @param original 返回的对象方法
+     * @param nullOr   当获取对象为空时返回的默认值
+     * @param <L> 列表类型
+     * @return 返回对象 如果获取的和默认值都为空 则会返回空
+     */
+    public static <L extends CPrimitiveList> L get(Supplier<L> original, Supplier<L> nullOr) {
+        L t = original.get();
+        if (t == null || t.isEmpty()) return nullOr.get();
+        return t;
+    }
+
+    /**
+     * 获取方法返回的对象 如果为空 则会抛出ObjectEmptyRuntimeException
+     * @param original 返回的对象方法
+     * @param <L> 列表类型
+     * @return 返回对象
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList> L getThrows(Supplier<L> original) {
+        return getThrows(original, ObjectEmptyRuntimeException::new);
+    }
+
+    /**
+     * 获取方法返回的对象 如果为空 则会抛出ObjectEmptyRuntimeException
+     * @param original         返回的对象方法
+     * @param exceptionMessage 异常的消息
+     * @param <L> 列表类型
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     * @return 获取集合
+     */
+    public static <L extends CPrimitiveList> L getThrows(Supplier<L> original, final String exceptionMessage) {
+        return getThrows(original, () -> new ObjectEmptyRuntimeException(exceptionMessage));
+    }
+
+    /**
+     * 获取方法返回的对象 如果为空 则会抛出指定RuntimeException子类异常
+     * @param original 返回的对象方法
+     * @param e        要抛出的指定RuntimeException子类异常
+     * @param <L> 列表类型
+     * @param <EX> 异常类型
+     * @return 返回对象
+     * @throws RuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList, EX extends RuntimeException> L getThrows(Supplier<L> original, Supplier<EX> e) {
+        L t = original.get();
+        if (t == null || t.isEmpty()) throw e.get();
+        return t;
+    }
+
+    /**
+     * 加工获取的对象 对象不为空时执行不为空的方法 为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param oNull    对象为空执行的方法
+     * @param <L> 列表类型
+     * @return 返回加工后的对象 如果如果加工方法为空则返回空
+     */
+    public static <L extends CPrimitiveList> L process(Supplier<L> original, UnaryOperator<L> oNotNull, Supplier<L> oNull) {
+        L t = original.get();
+        if (t == null || t.isEmpty()) return oNull.get();
+        return oNotNull.apply(t);
+    }
+
+    /**
+     * 加工获取的对象 对象不为空时执行不为空的方法 为空时抛出EmptyRuntimeException
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param <L> 列表类型
+     * @return 返回加工后的对象
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList> L processThrows(Supplier<L> original, UnaryOperator<L> oNotNull) {
+        return processThrows(original, oNotNull, ObjectEmptyRuntimeException::new);
+    }
+
+    /**
+     * 加工获取的对象 对象不为空时执行不为空的方法 为空时抛出EmptyRuntimeException
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param exceptionMessage 异常信息
+     * @param <L> 列表类型
+     * @return 返回加工后的对象
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList> L processThrows(Supplier<L> original, UnaryOperator<L> oNotNull, final String exceptionMessage) {
+        return processThrows(original, oNotNull, () -> new ObjectEmptyRuntimeException(exceptionMessage));
+    }
+
+    /**
+     * 获取对象 对象不为空时执行不为空的方法 为空时抛出RuntimeException子类
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param e        要抛出的指定RuntimeException子类异常
+     * @param <L> 列表类型
+     * @param <EX> 异常类型
+     * @return 返回处理后的结果
+     * @throws RuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList, EX extends RuntimeException> L processThrows(Supplier<L> original, UnaryOperator<L> oNotNull, Supplier<EX> e) {
+        L t = original.get();
+        if (t == null || t.isEmpty()) throw e.get();
+        return oNotNull.apply(t);
+    }
+
+    /**
+     * 获取对象 对象不为空时执行不为空的方法 为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param oNull    对象为空执行的方法
+     * @param <L> 列表类型
+     */
+    public static <L extends CPrimitiveList> void consume(Supplier<L> original, Consumer<L> oNotNull, VoidMethod oNull) {
+        L t = original.get();
+        if (t == null || t.isEmpty()) oNull.method();
+        else oNotNull.accept(t);
+    }
+
+    /**
+     * 获取对象 对象不为空时执行不为空的方法 为空时抛出EmptyRuntimeException
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param <L> 列表类型
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList> void consumeThrows(Supplier<L> original, Consumer<L> oNotNull) {
+        consumeThrows(original, oNotNull, ObjectEmptyRuntimeException::new);
+    }
+
+    /**
+     * 获取对象 对象不为空时执行不为空的方法 为空时抛出EmptyRuntimeException
+     * @param original         获取对象的方法
+     * @param oNotNull         对象不为空执行的方法
+     * @param exceptionMessage 异常的消息
+     * @param <L> 列表类型
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList> void consumeThrows(Supplier<L> original, Consumer<L> oNotNull, final String exceptionMessage) {
+        consumeThrows(original, oNotNull, () -> new ObjectEmptyRuntimeException(exceptionMessage));
+    }
+
+    /**
+     * 获取对象 对象不为空时执行不为空的方法 为空时抛出RuntimeException子类
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param e        要抛出的指定RuntimeException子类异常
+     * @param <L> 列表类型
+     * @param <EX> 期望抛出的异常类型
+     * @throws RuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList, EX extends RuntimeException> void consumeThrows(Supplier<L> original, Consumer<L> oNotNull, Supplier<EX> e) {
+        L t = original.get();
+        if (t == null || t.isEmpty()) throw e.get();
+        else oNotNull.accept(t);
+    }
+
+    /**
+     * 获取对象并转换 对象不为空时执行不为空的方法 为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param oNull    对象为空执行的方法
+     * @param <L> 原始列表类型
+     * @param <R> 转换后的类型 可以是另一种基本类型列表 也可以是List
+     * @return 返回转换后的对象
+     */
+    public static <L extends CPrimitiveList, R> R convert(Supplier<L> original, Function<L, R> oNotNull, Supplier<R> oNull) {
+        L t = original.get();
+        if (t == null || t.isEmpty()) return oNull.get();
+        return oNotNull.apply(t);
+    }
+
+    /**
+     * 获取对象并转换 对象不为空时执行不为空的方法 为空时抛出ObjectEmptyRuntimeException
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param <L> 原始列表类型
+     * @param <R> 转换后的类型 可以是另一种基本类型列表 也可以是List
+     * @return 返回转换后的对象
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList, R> R convertThrows(Supplier<L> original, Function<L, R> oNotNull) {
+        return convertThrows(original, oNotNull, ObjectEmptyRuntimeException::new);
+    }
+
+    /**
+     * 获取对象并转换 对象不为空时执行不为空的方法 为空时抛出ObjectEmptyRuntimeException
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param exceptionMessage 期望的异常信息
+     * @param <L> 原始列表类型
+     * @param <R> 转换后的类型 可以是另一种基本类型列表 也可以是List
+     * @return 返回转换后的对象
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList, R> R convertThrows(Supplier<L> original, Function<L, R> oNotNull, final String exceptionMessage) {
+        return convertThrows(original, oNotNull, () -> new ObjectEmptyRuntimeException(exceptionMessage));
+    }
+
+    /**
+     * 获取对象并转换 对象不为空时执行不为空的方法 为空时抛出RuntimeException子类
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param e        要抛出的指定RuntimeException子类异常
+     * @param <L> 原始列表类型
+     * @param <R> 转换后的类型 可以是另一种基本类型列表 也可以是List
+     * @param <EX> 期望的异常
+     * @return 返回转换后的对象
+     * @throws RuntimeException 预期的异常类型
+     */
+    public static <L extends CPrimitiveList, R, EX extends RuntimeException> R convertThrows(Supplier<L> original, Function<L, R> oNotNull, Supplier<EX> e) {
+        L t = original.get();
+        if (t == null || t.isEmpty()) throw e.get();
+        return oNotNull.apply(t);
+    }
+
+}
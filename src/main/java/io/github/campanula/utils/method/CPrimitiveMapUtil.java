@@ -0,0 +1,233 @@
+package io.github.campanula.utils.method;
+
+import io.github.campanula.utils.collection.CPrimitiveMap;
+import io.github.campanula.utils.exception.ObjectEmptyRuntimeException;
+import io.github.campanula.utils.function.VoidMethod;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 与CMapUtil相同的处理方式 用于CLongObjectMap CIntObjectMap等基本类型key的Map 不装箱
+ */
+public final class CPrimitiveMapUtil {
+
+    /**
+     * 获取方法返回的对象 如果为空 则返回定义的默认值
+     * @param original 返回的对象方法
+     * @param nullOr   当获取对象为空时返回的默认值
+     * @param <M> Map类型
+     * @return 返回对象 如果获取的和默认值都为空 则会返回空
+     */
+    public static <M extends CPrimitiveMap<?>> M get(Supplier<M> original, Supplier<M> nullOr) {
+        M t = original.get();
+        if (t == null || t.isEmpty()) return nullOr.get();
+        return t;
+    }
+
+    /**
+     * 获取方法返回的对象 如果为空 则会抛出ObjectEmptyRuntimeException
+     * @param original 返回的对象方法
+     * @param <M> Map类型
+     * @return 返回对象
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>> M getThrows(Supplier<M> original) {
+        return getThrows(original, ObjectEmptyRuntimeException::new);
+    }
+
+    /**
+     * 获取方法返回的对象 如果为空 则会抛出ObjectEmptyRuntimeException
+     * @param original         返回的对象方法
+     * @param exceptionMessage 异常的消息
+     * @param <M> Map类型
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     * @return 获取集合
+     */
+    public static <M extends CPrimitiveMap<?>> M getThrows(Supplier<M> original, final String exceptionMessage) {
+        return getThrows(original, () -> new ObjectEmptyRuntimeException(exceptionMessage));
+    }
+
+    /**
+     * 获取方法返回的对象 如果为空 则会抛出指定RuntimeException子类异常
+     * @param original 返回的对象方法
+     * @param e        要抛出的指定RuntimeException子类异常
+     * @param <M> Map类型
+     * @param <EX> 异常类型
+     * @return 返回对象
+     * @throws RuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>, EX extends RuntimeException> M getThrows(Supplier<M> original, Supplier<EX> e) {
+        M t = original.get();
+        if (t == null || t.isEmpty()) throw e.get();
+        return t;
+    }
+
+    /**
+     * 加工获取的对象 对象不为空时执行不为空的方法 为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param oNull    对象为空执行的方法
+     * @param <M> Map类型
+     * @return 返回加工后的对象 如果如果加工方法为空则返回空
+     */
+    public static <M extends CPrimitiveMap<?>> M process(Supplier<M> original, UnaryOperator<M> oNotNull, Supplier<M> oNull) {
+        M t = original.get();
+        if (t == null || t.isEmpty()) return oNull.get();
+        return oNotNull.apply(t);
+    }
+
+    /**
+     * 加工获取的对象 对象不为空时执行不为空的方法 为空时抛出EmptyRuntimeException
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param <M> Map类型
+     * @return 返回加工后的对象
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>> M processThrows(Supplier<M> original, UnaryOperator<M> oNotNull) {
+        return processThrows(original, oNotNull, ObjectEmptyRuntimeException::new);
+    }
+
+    /**
+     * 加工获取的对象 对象不为空时执行不为空的方法 为空时抛出EmptyRuntimeException
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param exceptionMessage 异常信息
+     * @param <M> Map类型
+     * @return 返回加工后的对象
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>> M processThrows(Supplier<M> original, UnaryOperator<M> oNotNull, final String exceptionMessage) {
+        return processThrows(original, oNotNull, () -> new ObjectEmptyRuntimeException(exceptionMessage));
+    }
+
+    /**
+     * 获取对象 对象不为空时执行不为空的方法 为空时抛出RuntimeException子类
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param e        要抛出的指定RuntimeException子类异常
+     * @param <M> Map类型
+     * @param <EX> 异常类型
+     * @return 返回处理后的结果
+     * @throws RuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>, EX extends RuntimeException> M processThrows(Supplier<M> original, UnaryOperator<M> oNotNull, Supplier<EX> e) {
+        M t = original.get();
+        if (t == null || t.isEmpty()) throw e.get();
+        return oNotNull.apply(t);
+    }
+
+    /**
+     * 获取对象 对象不为空时执行不为空的方法 为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param oNull    对象为空执行的方法
+     * @param <M> Map类型
+     */
+    public static <M extends CPrimitiveMap<?>> void consume(Supplier<M> original, Consumer<M> oNotNull, VoidMethod oNull) {
+        M t = original.get();
+        if (t == null || t.isEmpty()) oNull.method();
+        else oNotNull.accept(t);
+    }
+
+    /**
+     * 获取对象 对象不为空时执行不为空的方法 为空时抛出EmptyRuntimeException
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param <M> Map类型
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>> void consumeThrows(Supplier<M> original, Consumer<M> oNotNull) {
+        consumeThrows(original, oNotNull, ObjectEmptyRuntimeException::new);
+    }
+
+    /**
+     * 获取对象 对象不为空时执行不为空的方法 为空时抛出EmptyRuntimeException
+     * @param original         获取对象的方法
+     * @param oNotNull         对象不为空执行的方法
+     * @param exceptionMessage 异常的消息
+     * @param <M> Map类型
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>> void consumeThrows(Supplier<M> original, Consumer<M> oNotNull, final String exceptionMessage) {
+        consumeThrows(original, oNotNull, () -> new ObjectEmptyRuntimeException(exceptionMessage));
+    }
+
+    /**
+     * 获取对象 对象不为空时执行不为空的方法 为空时抛出RuntimeException子类
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param e        要抛出的指定RuntimeException子类异常
+     * @param <M> Map类型
+     * @param <EX> 期望抛出的异常类型
+     * @throws RuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>, EX extends RuntimeException> void consumeThrows(Supplier<M> original, Consumer<M> oNotNull, Supplier<EX> e) {
+        M t = original.get();
+        if (t == null || t.isEmpty()) throw e.get();
+        else oNotNull.accept(t);
+    }
+
+    /**
+     * 获取对象并转换 对象不为空时执行不为空的方法 为空时执行为空的方法
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param oNull    对象为空执行的方法
+     * @param <M> 原始Map类型
+     * @param <R> 转换后的类型 可以是另一种基本类型key的Map 也可以是Map
+     * @return 返回转换后的对象
+     */
+    public static <M extends CPrimitiveMap<?>, R> R convert(Supplier<M> original, Function<M, R> oNotNull, Supplier<R> oNull) {
+        M t = original.get();
+        if (t == null || t.isEmpty()) return oNull.get();
+        return oNotNull.apply(t);
+    }
+
+    /**
+     * 获取对象并转换 对象不为空时执行不为空的方法 为空时抛出ObjectEmptyRuntimeException
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param <M> 原始Map类型
+     * @param <R> 转换后的类型 可以是另一种基本类型key的Map 也可以是Map
+     * @return 返回转换后的对象
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>, R> R convertThrows(Supplier<M> original, Function<M, R> oNotNull) {
+        return convertThrows(original, oNotNull, ObjectEmptyRuntimeException::new);
+    }
+
+    /**
+     * 获取对象并转换 对象不为空时执行不为空的方法 为空时抛出ObjectEmptyRuntimeException
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param exceptionMessage 期望的异常信息
+     * @param <M> 原始Map类型
+     * @param <R> 转换后的类型 可以是另一种基本类型key的Map 也可以是Map
+     * @return 返回转换后的对象
+     * @throws ObjectEmptyRuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>, R> R convertThrows(Supplier<M> original, Function<M, R> oNotNull, final String exceptionMessage) {
+        return convertThrows(original, oNotNull, () -> new ObjectEmptyRuntimeException(exceptionMessage));
+    }
+
+    /**
+     * 获取对象并转换 对象不为空时执行不为空的方法 为空时抛出RuntimeException子类
+     * @param original 获取对象的方法
+     * @param oNotNull 对象不为空执行的方法
+     * @param e        要抛出的指定RuntimeException子类异常
+     * @param <M> 原始Map类型
+     * @param <R> 转换后的类型 可以是另一种基本类型key的Map 也可以是Map
+     * @param <EX> 期望的异常
+     * @return 返回转换后的对象
+     * @throws RuntimeException 预期的异常类型
+     */
+    public static <M extends CPrimitiveMap<?>, R, EX extends RuntimeException> R convertThrows(Supplier<M> original, Function<M, R> oNotNull, Supplier<EX> e) {
+        M t = original.get();
+        if (t == null || t.isEmpty()) throw e.get();
+        return oNotNull.apply(t);
+    }
+
+}
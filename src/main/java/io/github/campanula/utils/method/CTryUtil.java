@@ -1,8 +1,33 @@
 package io.github.campanula.utils.method;
 
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
 import io.github.campanula.utils.function.VoidMethod;
 import io.github.campanula.utils.param.CExceptionHandle;
+import io.github.campanula.utils.param.CRetryPolicy;
+import io.github.campanula.utils.param.CTry;
+import io.github.campanula.utils.param.CTryBatch;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -67,4 +92,479 @@ public final class CTryUtil {
             }
         }
     }
+
+    /**
+     * 在截止时间内执行方法 超时后中断执行方法的线程 并把TimeoutException交给异常处理
+     * 方法在共用的守护线程池上执行 当前线程最多等待timeout 线程都被占用时排队 排队的时间也计入timeout
+     * 共用线程池的线程数和队列长度都有上限 队列也满时不会执行方法 把RejectedExecutionException交给异常处理
+     * @param tryMethod 要执行的正常方法
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @param handle 异常(包括超时)后执行的方法
+     * @param <T> 预期获取的类型
+     * @return 预期的数据
+     */
+    public static <T, EX extends Exception, EF> T handle(Supplier<T> tryMethod, long timeout, TimeUnit unit, CExceptionHandle<EX, EF> handle) {
+        return handle(tryMethod, timeout, unit, TimeoutExecutor.INSTANCE, handle);
+    }
+
+    /**
+     * 在截止时间内执行方法 超时后中断执行方法的线程 并把TimeoutException交给异常处理
+     * 线程池拒绝执行时不会执行方法 把RejectedExecutionException交给异常处理
+     * @param tryMethod 要执行的正常方法
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @param executor 执行方法的线程池
+     * @param handle 异常(包括超时)后执行的方法
+     * @param <T> 预期获取的类型
+     * @return 预期的数据
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, EX extends Exception, EF> T handle(Supplier<T> tryMethod, long timeout, TimeUnit unit, ExecutorService executor, CExceptionHandle<EX, EF> handle) {
+        CTry<T> result = attempt(tryMethod, timeout, unit, executor);
+        if (result.isSuccess()) return result.get();
+        return (T) handle.handle((EX) result.getException());
+    }
+
+    /**
+     * 在截止时间内执行方法 超时后中断执行方法的线程 并返回fallback的数据
+     * 共用线程池的队列也满时不会执行方法 同样返回fallback的数据
+     * 方法本身抛出的异常会继续抛出(非RuntimeException会被CampanulaRuntimeException包裹一层)
+     * @param tryMethod 要执行的正常方法
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @param fallback 超时后获取数据的方法
+     * @param <T> 预期获取的类型
+     * @return 预期的数据
+     */
+    public static <T> T handle(Supplier<T> tryMethod, long timeout, TimeUnit unit, Supplier<T> fallback) {
+        CTry<T> result = attempt(tryMethod, timeout, unit, TimeoutExecutor.INSTANCE);
+        Exception exception = result.getException();
+        if (exception instanceof TimeoutException || exception instanceof RejectedExecutionException) return fallback.get();
+        return result.get();
+    }
+
+    /**
+     * 在截止时间内执行方法并返回结果 不会抛出异常
+     * 超时后会取消并中断执行方法的线程 结果为TimeoutException的失败
+     * 当前线程等待时被中断 结果为InterruptedException的失败 并保留中断标识
+     * 线程池拒绝执行时 结果为RejectedExecutionException的失败
+     * @param tryMethod 要执行的正常方法
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @param executor 执行方法的线程池
+     * @param <T> 预期获取的类型
+     * @return 成功时持有返回值 失败时持有异常
+     */
+    public static <T> CTry<T> attempt(Supplier<T> tryMethod, long timeout, TimeUnit unit, ExecutorService executor) {
+        Future<T> future;
+        try {
+            future = executor.submit(tryMethod::get);
+        }
+        catch (RejectedExecutionException e) {
+            return CTry.failure(e);
+        }
+        try {
+            return CTry.success(future.get(timeout, unit));
+        }
+        catch (TimeoutException e) {
+            cancel(future, executor);
+            return CTry.failure(e);
+        }
+        catch (InterruptedException e) {
+            cancel(future, executor);
+            Thread.currentThread().interrupt();
+            return CTry.failure(e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) return CTry.failure((Exception) cause);
+            if (cause instanceof Error) throw (Error) cause;
+            throw new CampanulaRuntimeException(cause);
+        }
+    }
+
+    /**
+     * 取消并中断执行中的方法 还在排队的直接从队列里删除 不占用队列的位置
+     */
+    private static void cancel(Future<?> future, ExecutorService executor) {
+        future.cancel(true);
+        if (executor instanceof ThreadPoolExecutor && future instanceof Runnable) {
+            ((ThreadPoolExecutor) executor).remove((Runnable) future);
+        }
+    }
+
+    /**
+     * 给异步执行加上截止时间 超时后以TimeoutException完成 并取消原来的future
+     * 计时由共用的调度线程完成 不会占用其他线程
+     * @param future 异步执行的结果
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @param <T> 预期获取的类型
+     * @return 在截止时间内完成的结果
+     */
+    public static <T> CompletableFuture<T> timeout(CompletableFuture<T> future, long timeout, TimeUnit unit) {
+        if (future.isDone()) return future;
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> timer = Scheduler.INSTANCE.schedule(() -> {
+            if (result.completeExceptionally(new TimeoutException("Timed out after " + timeout + " " + unit))) {
+                future.cancel(true);
+            }
+        }, timeout, unit);
+        future.whenComplete((value, throwable) -> {
+            timer.cancel(false);
+            if (throwable == null) result.complete(value);
+            else result.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+        });
+        return result;
+    }
+
+    /**
+     * 按重试策略执行方法 重试结束后仍然失败会抛出最后一次的异常(非RuntimeException会被CampanulaRuntimeException包裹一层)
+     * @param tryMethod 要执行的正常方法
+     * @param policy 重试策略
+     * @param <T> 预期获取的类型
+     * @return 预期的数据
+     */
+    public static <T> T retry(Supplier<T> tryMethod, CRetryPolicy policy) {
+        return retryAttempt(tryMethod, policy).get();
+    }
+
+    /**
+     * 按重试策略执行方法 重试结束后仍然失败会交给异常处理
+     * @param tryMethod 要执行的正常方法
+     * @param policy 重试策略
+     * @param handle 重试结束后仍然失败时执行的方法
+     * @param <T> 预期获取的类型
+     * @return 预期的数据
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, EX extends Exception, EF> T retry(Supplier<T> tryMethod, CRetryPolicy policy, CExceptionHandle<EX, EF> handle) {
+        CTry<T> result = retryAttempt(tryMethod, policy);
+        if (result.isSuccess()) return result.get();
+        return (T) handle.handle((EX) result.getException());
+    }
+
+    /**
+     * 按重试策略执行方法 重试结束后仍然失败会交给异常处理
+     * @param tryMethod 要执行的正常方法
+     * @param policy 重试策略
+     * @param handle 重试结束后仍然失败时执行的方法
+     */
+    @SuppressWarnings("unchecked")
+    public static <EX extends Exception, EF> void retry(VoidMethod tryMethod, CRetryPolicy policy, CExceptionHandle<EX, EF> handle) {
+        CTry<Void> result = retryAttempt(() -> {
+            tryMethod.method();
+            return null;
+        }, policy);
+        if (result.isFailure()) handle.handle((EX) result.getException());
+    }
+
+    /**
+     * 按重试策略执行方法 不会抛出异常
+     * 两次执行之间会阻塞当前线程 被中断时停止重试并返回最后一次的失败
+     * @param tryMethod 要执行的正常方法
+     * @param policy 重试策略
+     * @param <T> 预期获取的类型
+     * @return 成功时持有返回值 失败时持有最后一次的异常
+     */
+    public static <T> CTry<T> retryAttempt(Supplier<T> tryMethod, CRetryPolicy policy) {
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            CTry<T> result = attempt(tryMethod);
+            if (result.isSuccess()) return result;
+
+            long delay = policy.nextDelayNanos(attempt, start, result.getException());
+            if (delay < 0) return result;
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return result;
+            }
+        }
+    }
+
+    /**
+     * 按重试策略在ForkJoinPool.commonPool()上异步执行方法
+     * @param tryMethod 要执行的正常方法
+     * @param policy 重试策略
+     * @param <T> 预期获取的类型
+     * @return 成功时完成返回值 重试结束后仍然失败时以最后一次的异常完成
+     */
+    public static <T> CompletableFuture<T> retryAsync(Supplier<T> tryMethod, CRetryPolicy policy) {
+        return retryAsync(tryMethod, policy, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 按重试策略在指定线程池上异步执行方法
+     * 两次执行之间的等待由共用的调度线程计时 不会占用线程池的线程
+     * @param tryMethod 要执行的正常方法
+     * @param policy 重试策略
+     * @param executor 执行方法的线程池
+     * @param <T> 预期获取的类型
+     * @return 成功时完成返回值 重试结束后仍然失败时以最后一次的异常完成
+     */
+    public static <T> CompletableFuture<T> retryAsync(Supplier<T> tryMethod, CRetryPolicy policy, Executor executor) {
+        return retryCompose(() -> CompletableFuture.supplyAsync(tryMethod, executor), policy);
+    }
+
+    /**
+     * 按重试策略执行本身就是异步的方法(例如异步的rpc调用)
+     * 重试时tryMethod会在共用的调度线程上被调用 不能在里面阻塞
+     * 返回的CompletableFuture被取消后不再重试 tryMethod返回null时按失败处理
+     * @param tryMethod 发起一次异步调用的方法
+     * @param policy 重试策略
+     * @param <T> 预期获取的类型
+     * @return 成功时完成返回值 重试结束后仍然失败时以最后一次的异常完成
+     */
+    public static <T> CompletableFuture<T> retryCompose(Supplier<CompletableFuture<T>> tryMethod, CRetryPolicy policy) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        retryCompose(tryMethod, policy, result, 1, System.nanoTime());
+        return result;
+    }
+
+    private static <T> void retryCompose(Supplier<CompletableFuture<T>> tryMethod, CRetryPolicy policy, CompletableFuture<T> result, int attempt, long start) {
+        if (result.isDone()) return;
+
+        CompletableFuture<T> future;
+        try {
+            future = tryMethod.get();
+            if (future == null) throw new CampanulaRuntimeException("tryMethod returned null");
+        }
+        catch (Throwable e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+
+        future.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            // 回调和重试都在没有人等待结果的线程上执行 抛出的异常会被吞掉 所以出错时直接结束result
+            try {
+                long delay = cause instanceof Exception ? policy.nextDelayNanos(attempt, start, (Exception) cause) : -1;
+                if (delay < 0) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                Scheduler.INSTANCE.schedule(() -> {
+                    try {
+                        retryCompose(tryMethod, policy, result, attempt + 1, start);
+                    }
+                    catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    }
+                }, delay, TimeUnit.NANOSECONDS);
+            }
+            catch (Throwable e) {
+                e.addSuppressed(cause);
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * 共用的调度线程 只负责计时 到时后把任务交给对应的线程池
+     */
+    private static final class Scheduler {
+
+        private static final ScheduledExecutorService INSTANCE = newScheduler();
+
+        private static ScheduledExecutorService newScheduler() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "campanula-try-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+
+    /**
+     * 带截止时间执行时默认使用的线程池 线程都是守护线程 空闲60秒后回收
+     * 超时后不响应中断的方法会继续占用线程 所以线程数有上限 全部被占用时排队 队列也满时才拒绝
+     */
+    private static final class TimeoutExecutor {
+
+        private static final int MAX_THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+        private static final int QUEUE_CAPACITY = MAX_THREADS * 128;
+
+        private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+        private static final ExecutorService INSTANCE = newExecutor();
+
+        private static ExecutorService newExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "campanula-try-timeout-" + THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * 批量并行执行时每一块的最小数据量
+     */
+    private static final int BATCH_MIN_CHUNK = 1024;
+
+    /**
+     * 执行方法并返回结果 不会抛出异常
+     * @param tryMethod 要执行的正常方法
+     * @param <T> 预期获取的类型
+     * @return 成功时持有返回值 失败时持有异常
+     */
+    public static <T> CTry<T> attempt(Supplier<T> tryMethod) {
+        return attempt(tryMethod, null);
+    }
+
+    /**
+     * 执行方法并返回结果 不会抛出异常
+     * @param tryMethod 要执行的正常方法
+     * @param finallyMethod finally要执行的方法
+     * @param <T> 预期获取的类型
+     * @return 成功时持有返回值 失败时持有异常
+     */
+    public static <T> CTry<T> attempt(Supplier<T> tryMethod, VoidMethod finallyMethod) {
+        try {
+            return CTry.success(tryMethod.get());
+        }
+        catch (Exception e) {
+            return CTry.failure(e);
+        }
+        finally {
+            if (finallyMethod != null) {
+                finallyMethod.method();
+            }
+        }
+    }
+
+    /**
+     * 执行方法并返回结果 不会抛出异常
+     * @param tryMethod 要执行的正常方法
+     * @return 成功时返回值为空 失败时持有异常
+     */
+    public static CTry<Void> attempt(VoidMethod tryMethod) {
+        return attempt(() -> {
+            tryMethod.method();
+            return null;
+        });
+    }
+
+    /**
+     * 对集合内每条数据执行方法 单条失败不会中断整批
+     * @param list 要处理的数据
+     * @param function 每条数据要执行的方法
+     * @param <T> 原始数据类型
+     * @param <R> 处理后的数据类型
+     * @return 成功的返回值和失败的异常分开存放的结果
+     */
+    public static <T, R> CTryBatch<R> batch(List<T> list, Function<? super T, ? extends R> function) {
+        return batch(list, function, null);
+    }
+
+    /**
+     * 对集合内每条数据执行方法 单条失败不会中断整批
+     * @param list 要处理的数据
+     * @param function 每条数据要执行的方法
+     * @param parallel 是否在ForkJoinPool.commonPool()上分块并行执行
+     * @param <T> 原始数据类型
+     * @param <R> 处理后的数据类型
+     * @return 成功的返回值和失败的异常分开存放的结果
+     */
+    public static <T, R> CTryBatch<R> batch(List<T> list, Function<? super T, ? extends R> function, boolean parallel) {
+        return batch(list, function, parallel ? ForkJoinPool.commonPool() : null);
+    }
+
+    /**
+     * 对集合内每条数据执行方法 单条失败不会中断整批
+     * @param list 要处理的数据
+     * @param function 每条数据要执行的方法
+     * @param pool 分块并行执行的线程池 为空时在当前线程顺序执行
+     * @param <T> 原始数据类型
+     * @param <R> 处理后的数据类型
+     * @return 成功的返回值和失败的异常分开存放的结果
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> CTryBatch<R> batch(List<T> list, Function<? super T, ? extends R> function, ForkJoinPool pool) {
+        if (list == null || list.isEmpty()) return new CTryBatch<>(Collections.emptyList(), new int[0], Collections.emptyList());
+        List<T> source = list instanceof RandomAccess ? list : new ArrayList<>(list);
+        int size = source.size();
+        Object[] out = new Object[size];
+
+        BatchFailures failures;
+        if (pool != null && size > BATCH_MIN_CHUNK) {
+            int chunk = Math.max(BATCH_MIN_CHUNK, size / (pool.getParallelism() * 4));
+            failures = ChunkTask.invoke(pool, 0, size, chunk, (from, to) -> runBatch(source, function, out, from, to), BatchFailures::merge);
+        }
+        else {
+            failures = runBatch(source, function, out, 0, size);
+        }
+
+        if (failures == null) {
+            return new CTryBatch<>((List<R>) Arrays.asList(out), new int[0], Collections.emptyList());
+        }
+
+        int[] indexes = failures.indexes();
+        int write = 0;
+        for (int i = 0, f = 0; i < size; i++) {
+            if (f < indexes.length && indexes[f] == i) {
+                f++;
+                continue;
+            }
+            out[write++] = out[i];
+        }
+        Arrays.fill(out, write, size, null);
+        return new CTryBatch<>((List<R>) Arrays.asList(out).subList(0, write), indexes, failures.exceptions);
+    }
+
+    private static <T, R> BatchFailures runBatch(List<T> source, Function<? super T, ? extends R> function, Object[] out, int from, int to) {
+        BatchFailures failures = null;
+        for (int i = from; i < to; i++) {
+            try {
+                out[i] = function.apply(source.get(i));
+            }
+            catch (Exception e) {
+                if (failures == null) failures = new BatchFailures();
+                failures.add(i, e);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * 批量执行时记录的失败 只在出现失败时才会创建
+     */
+    private static final class BatchFailures {
+
+        private int[] indexes = new int[4];
+        private int size;
+        private final List<Exception> exceptions = new ArrayList<>(4);
+
+        private void add(int index, Exception e) {
+            if (size == indexes.length) indexes = Arrays.copyOf(indexes, size << 1);
+            indexes[size++] = index;
+            exceptions.add(e);
+        }
+
+        private static BatchFailures merge(BatchFailures left, BatchFailures right) {
+            if (left == null) return right;
+            if (right == null) return left;
+            for (int i = 0; i < right.size; i++) {
+                left.add(right.indexes[i], right.exceptions.get(i));
+            }
+            return left;
+        }
+
+        private int[] indexes() {
+            return Arrays.copyOf(indexes, size);
+        }
+    }
 }
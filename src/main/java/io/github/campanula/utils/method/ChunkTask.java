@@ -0,0 +1,72 @@
+package io.github.campanula.utils.method;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * 按下标区间对半拆分的任务 区间长度不超过chunk时直接执行 左右两半的结果用merge合并
+ * @param <R> 每一段的结果
+ */
+final class ChunkTask<R> extends RecursiveTask<R> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 执行 [from, to) 并返回结果
+     * @param <R> 结果类型
+     */
+    @FunctionalInterface
+    interface Chunk<R> {
+        R apply(int from, int to);
+    }
+
+    /**
+     * 执行 [from, to) 不需要结果
+     */
+    @FunctionalInterface
+    interface ChunkAction {
+        void apply(int from, int to);
+    }
+
+    private final Chunk<R> action;
+    private final BinaryOperator<R> merge;
+    private final int from;
+    private final int to;
+    private final int chunk;
+
+    private ChunkTask(Chunk<R> action, BinaryOperator<R> merge, int from, int to, int chunk) {
+        this.action = action;
+        this.merge = merge;
+        this.from = from;
+        this.to = to;
+        this.chunk = chunk;
+    }
+
+    /**
+     * 在pool上拆分执行 [from, to) 按下标顺序合并结果
+     */
+    static <R> R invoke(ForkJoinPool pool, int from, int to, int chunk, Chunk<R> action, BinaryOperator<R> merge) {
+        return pool.invoke(new ChunkTask<>(action, merge, from, to, Math.max(1, chunk)));
+    }
+
+    /**
+     * 在pool上拆分执行 [from, to)
+     */
+    static void run(ForkJoinPool pool, int from, int to, int chunk, ChunkAction action) {
+        ChunkTask.<Void>invoke(pool, from, to, chunk, (f, t) -> {
+            action.apply(f, t);
+            return null;
+        }, (left, right) -> null);
+    }
+
+    @Override
+    protected R compute() {
+        if (to - from <= chunk) return action.apply(from, to);
+        int mid = (from + to) >>> 1;
+        ChunkTask<R> left = new ChunkTask<>(action, merge, from, mid, chunk);
+        left.fork();
+        R right = new ChunkTask<>(action, merge, mid, to, chunk).compute();
+        return merge.apply(left.join(), right);
+    }
+}
@@ -89,6 +89,23 @@ public final class CExceptionHandle<EX extends Exception, EF> {
         }
     }
 
+    /**
+     * 判断传入的异常是否会被处理 判断规则与handle一致
+     * @param e 要判断的异常
+     * @return 异常类型被注册过 或者注册了Exception的处理 返回true
+     */
+    public boolean supports(Exception e) {
+        if (flagEnum.equals(FlagEnum.RESULT) ? exceptionFunction != null : exceptionConsumer != null) {
+            return true;
+        }
+        for (Class<EX> exClass : exceptions) {
+            if (e.getClass().equals(exClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 有返回值异常初始化以及拼装
      */
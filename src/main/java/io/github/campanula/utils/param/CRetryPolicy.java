@@ -0,0 +1,195 @@
+package io.github.campanula.utils.param;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 重试策略
+ * 最大执行次数 指数退避 随机抖动 可重试的异常类型 以及整体的截止时间
+ * 拼装完成后可以被多个线程共用
+ */
+public final class CRetryPolicy {
+
+    /**
+     * 最多执行的次数(包含第一次)
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * 第一次重试前等待的时间(纳秒)
+     */
+    private long initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * 单次等待的上限(纳秒)
+     */
+    private long maxDelayNanos = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * 每次重试等待时间的倍数
+     */
+    private double multiplier = 2D;
+
+    /**
+     * 抖动比例 [0, 1] 实际等待时间在 [delay * (1 - jitter), delay] 之间随机
+     */
+    private double jitter = 0.5D;
+
+    /**
+     * 从第一次执行开始计算的截止时间(纳秒) 0表示不限制
+     */
+    private long deadlineNanos;
+
+    /**
+     * 可重试的异常类型(包含子类)
+     */
+    private List<Class<? extends Exception>> retryOn;
+
+    /**
+     * 可重试的异常处理 注册在里面的异常类型都会被重试
+     */
+    private List<CExceptionHandle<?, ?>> retryOnHandles;
+
+    private CRetryPolicy() {
+        this.retryOn = new LinkedList<>();
+        this.retryOnHandles = new LinkedList<>();
+    }
+
+    /**
+     * 计算下一次重试前要等待的时间
+     * @param attempt 已经执行的次数 从1开始
+     * @param startNanos 第一次执行时的System.nanoTime()
+     * @param e 本次执行产生的异常
+     * @return 要等待的纳秒数 不再重试时返回-1
+     */
+    public long nextDelayNanos(int attempt, long startNanos, Exception e) {
+        if (attempt >= maxAttempts || !retryable(e)) return -1;
+
+        double base = initialDelayNanos * Math.pow(multiplier, attempt - 1);
+        long delay = base >= maxDelayNanos ? maxDelayNanos : (long) base;
+        if (jitter > 0 && delay > 0) {
+            delay -= (long) (delay * jitter * ThreadLocalRandom.current().nextDouble());
+        }
+
+        if (deadlineNanos > 0 && System.nanoTime() + delay - startNanos >= deadlineNanos) return -1;
+        return delay;
+    }
+
+    /**
+     * @param e 执行产生的异常
+     * @return 这个异常是否可以重试 没有指定任何可重试的异常时全部重试
+     */
+    public boolean retryable(Exception e) {
+        if (retryOn.isEmpty() && retryOnHandles.isEmpty()) return true;
+        for (Class<? extends Exception> clazz : retryOn) {
+            if (clazz.isInstance(e)) return true;
+        }
+        for (CExceptionHandle<?, ?> handle : retryOnHandles) {
+            if (handle.supports(e)) return true;
+        }
+        return false;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * 重试策略的初始化以及拼装
+     */
+    public final static class Builder {
+
+        private CRetryPolicy policy;
+
+        private Builder() {
+            this.policy = new CRetryPolicy();
+        }
+
+        public static Builder aBuilder() {
+            return new Builder();
+        }
+
+        /**
+         * @param maxAttempts 最多执行的次数(包含第一次)
+         * @return 拼装类本身
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) throw new CampanulaRuntimeException("maxAttempts must be greater than 0");
+            this.policy.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param initialDelay 第一次重试前等待的时间
+         * @param maxDelay 单次等待的上限
+         * @param unit 时间单位
+         * @return 拼装类本身
+         */
+        public Builder backoff(long initialDelay, long maxDelay, TimeUnit unit) {
+            if (initialDelay < 0 || maxDelay < initialDelay) throw new CampanulaRuntimeException("Illegal backoff delay");
+            this.policy.initialDelayNanos = unit.toNanos(initialDelay);
+            this.policy.maxDelayNanos = unit.toNanos(maxDelay);
+            return this;
+        }
+
+        /**
+         * @param multiplier 每次重试等待时间的倍数 1为固定间隔
+         * @return 拼装类本身
+         */
+        public Builder multiplier(double multiplier) {
+            if (multiplier < 1D) throw new CampanulaRuntimeException("multiplier must not be less than 1");
+            this.policy.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * @param jitter 抖动比例 [0, 1] 0为不抖动
+         * @return 拼装类本身
+         */
+        public Builder jitter(double jitter) {
+            if (jitter < 0D || jitter > 1D) throw new CampanulaRuntimeException("jitter must be between 0 and 1");
+            this.policy.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * @param deadline 从第一次执行开始计算的截止时间 超过后不再重试
+         * @param unit 时间单位
+         * @return 拼装类本身
+         */
+        public Builder deadline(long deadline, TimeUnit unit) {
+            this.policy.deadlineNanos = unit.toNanos(deadline);
+            return this;
+        }
+
+        /**
+         * @param eClass 可重试的异常类型(包含子类)
+         * @return 拼装类本身
+         */
+        public Builder retryOn(Class<? extends Exception> eClass) {
+            this.policy.retryOn.add(eClass);
+            return this;
+        }
+
+        /**
+         * @param handle 注册在里面的异常类型都会被重试
+         * @return 拼装类本身
+         */
+        public Builder retryOn(CExceptionHandle<?, ?> handle) {
+            this.policy.retryOnHandles.add(handle);
+            return this;
+        }
+
+        public CRetryPolicy getPolicy() {
+            return this.policy;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package io.github.campanula.utils.param;
+
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 执行结果 成功时持有返回值 失败时持有异常
+ * 用于替代 try-catch 作为流程控制 组合过程中不会再抛出异常
+ * @param <T> 成功时的返回值类型
+ */
+public final class CTry<T> {
+
+    /**
+     * 成功时的返回值
+     */
+    private final T value;
+
+    /**
+     * 失败时的异常 为空表示成功
+     */
+    private final Exception exception;
+
+    private CTry(T value, Exception exception) {
+        this.value = value;
+        this.exception = exception;
+    }
+
+    /**
+     * @param value 返回值
+     * @param <T> 返回值类型
+     * @return 成功的结果
+     */
+    public static <T> CTry<T> success(T value) {
+        return new CTry<>(value, null);
+    }
+
+    /**
+     * @param exception 执行时产生的异常
+     * @param <T> 返回值类型
+     * @return 失败的结果
+     */
+    public static <T> CTry<T> failure(Exception exception) {
+        if (exception == null) throw new CampanulaRuntimeException("The failure exception cannot be empty");
+        return new CTry<>(null, exception);
+    }
+
+    public boolean isSuccess() {
+        return this.exception == null;
+    }
+
+    public boolean isFailure() {
+        return this.exception != null;
+    }
+
+    /**
+     * 获取返回值 失败时抛出异常(非RuntimeException会被CampanulaRuntimeException包裹一层)
+     * @return 成功时的返回值
+     */
+    public T get() {
+        if (this.exception == null) return this.value;
+        if (this.exception instanceof RuntimeException) throw (RuntimeException) this.exception;
+        throw new CampanulaRuntimeException(this.exception);
+    }
+
+    /**
+     * @return 失败时的异常 成功时返回空
+     */
+    public Exception getException() {
+        return this.exception;
+    }
+
+    /**
+     * @param other 失败时返回的默认值
+     * @return 成功时的返回值 失败时返回默认值
+     */
+    public T getOrElse(T other) {
+        return this.exception == null ? this.value : other;
+    }
+
+    /**
+     * @param other 失败时获取默认值的方法
+     * @return 成功时的返回值 失败时返回默认值
+     */
+    public T getOrElseGet(Supplier<? extends T> other) {
+        return this.exception == null ? this.value : other.get();
+    }
+
+    /**
+     * 成功时转换返回值 转换时产生的异常会变为失败的结果
+     * @param function 转换的方法
+     * @param <R> 转换后的类型
+     * @return 转换后的结果
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CTry<R> map(Function<? super T, ? extends R> function) {
+        if (this.exception != null) return (CTry<R>) this;
+        try {
+            return success(function.apply(this.value));
+        }
+        catch (Exception e) {
+            return failure(e);
+        }
+    }
+
+    /**
+     * 成功时继续执行返回结果的方法 执行时产生的异常会变为失败的结果
+     * @param function 返回结果的方法
+     * @param <R> 转换后的类型
+     * @return 方法返回的结果
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CTry<R> flatMap(Function<? super T, CTry<R>> function) {
+        if (this.exception != null) return (CTry<R>) this;
+        try {
+            return function.apply(this.value);
+        }
+        catch (Exception e) {
+            return failure(e);
+        }
+    }
+
+    /**
+     * 失败时用异常恢复出一个返回值 恢复时产生的异常会变为失败的结果
+     * @param function 恢复的方法
+     * @return 恢复后的结果
+     */
+    public CTry<T> recover(Function<? super Exception, ? extends T> function) {
+        if (this.exception == null) return this;
+        try {
+            return success(function.apply(this.exception));
+        }
+        catch (Exception e) {
+            return failure(e);
+        }
+    }
+
+    /**
+     * 失败时交给CExceptionHandle处理 异常类型没有被注册时保持原来的失败结果
+     * 处理时产生的异常会变为失败的结果
+     * @param handle 有返回值的异常处理 返回值类型要与T一致
+     * @param <EX> 异常类型
+     * @return 恢复后的结果
+     */
+    @SuppressWarnings("unchecked")
+    public <EX extends Exception> CTry<T> recover(CExceptionHandle<EX, ? extends T> handle) {
+        if (this.exception == null || !handle.supports(this.exception)) return this;
+        try {
+            return success(handle.handle((EX) this.exception));
+        }
+        catch (Exception e) {
+            return failure(e);
+        }
+    }
+
+    /**
+     * @param consumer 成功时执行的方法
+     * @return 结果本身
+     */
+    public CTry<T> onSuccess(Consumer<? super T> consumer) {
+        if (this.exception == null) consumer.accept(this.value);
+        return this;
+    }
+
+    /**
+     * @param consumer 失败时执行的方法
+     * @return 结果本身
+     */
+    public CTry<T> onFailure(Consumer<? super Exception> consumer) {
+        if (this.exception != null) consumer.accept(this.exception);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return this.exception == null ? "CTry.success(" + this.value + ")" : "CTry.failure(" + this.exception + ")";
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.campanula.utils.param;
+
+import java.util.List;
+
+/**
+ * 批量执行的结果
+ * 成功的返回值和失败的异常分开存放 成功的数据不会被逐条包装
+ * @param <R> 成功时的返回值类型
+ */
+public final class CTryBatch<R> {
+
+    /**
+     * 按原顺序排列的成功返回值
+     */
+    private final List<R> successes;
+
+    /**
+     * 失败数据在原集合中的下标 升序
+     */
+    private final int[] failureIndexes;
+
+    /**
+     * 与failureIndexes一一对应的异常
+     */
+    private final List<Exception> failures;
+
+    public CTryBatch(List<R> successes, int[] failureIndexes, List<Exception> failures) {
+        this.successes = successes;
+        this.failureIndexes = failureIndexes;
+        this.failures = failures;
+    }
+
+    /**
+     * @return 按原顺序排列的成功返回值
+     */
+    public List<R> getSuccesses() {
+        return successes;
+    }
+
+    /**
+     * @return 失败数据在原集合中的下标 升序
+     */
+    public int[] getFailureIndexes() {
+        return failureIndexes;
+    }
+
+    /**
+     * @return 与失败下标一一对应的异常
+     */
+    public List<Exception> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return 是否全部成功
+     */
+    public boolean isAllSuccess() {
+        return failureIndexes.length == 0;
+    }
+
+    /**
+     * @return 处理的数据总数
+     */
+    public int size() {
+        return successes.size() + failureIndexes.length;
+    }
+}
@@ -28,6 +28,43 @@ public abstract class CAbstractAfterProxyHandle<T> extends AbstractChain<CProxyA
      */
     protected abstract void operate(CProxyAfterParam<T> afterParam);
 
+    /**
+     * 被代理的方法抛出异常时执行 默认什么都不做
+     * @param afterParam 里面有 代理对象本身 需要代理的方法 传入的参数 result为空
+     * @param e 被代理的方法抛出的异常
+     */
+    protected void operateException(CProxyAfterParam<T> afterParam, Throwable e) {
+    }
+
+    /**
+     * 从当前链一直处理到最后一个链 参数只在本次调用内传递 不会存放在链上 多个线程可以同时执行
+     * @param afterParam 里面有 代理对象本身 需要代理的方法 传入的参数 方法执行后返回的结果
+     * @return 最后一个链处理后的参数
+     */
+    @SuppressWarnings("unchecked")
+    public CProxyAfterParam<T> execute(CProxyAfterParam<T> afterParam) {
+        CAbstractAfterProxyHandle<T> handle = this;
+        while (handle != null) {
+            afterParam = handle.handler(afterParam);
+            handle = (CAbstractAfterProxyHandle<T>) handle.getNext();
+        }
+        return afterParam;
+    }
+
+    /**
+     * 被代理的方法抛出异常时 从当前链一直通知到最后一个链
+     * @param afterParam 里面有 代理对象本身 需要代理的方法 传入的参数 result为空
+     * @param e 被代理的方法抛出的异常
+     */
+    @SuppressWarnings("unchecked")
+    public void exception(CProxyAfterParam<T> afterParam, Throwable e) {
+        CAbstractAfterProxyHandle<T> handle = this;
+        while (handle != null) {
+            handle.operateException(afterParam, e);
+            handle = (CAbstractAfterProxyHandle<T>) handle.getNext();
+        }
+    }
+
     /**
      * 设置代理对象的数据 不建议使用
      * @param afterParam 里面有 代理对象本身 需要代理的方法 传入的参数 方法执行后返回的结果
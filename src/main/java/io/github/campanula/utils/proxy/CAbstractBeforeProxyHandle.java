@@ -17,10 +17,25 @@ public abstract class CAbstractBeforeProxyHandle<T> extends AbstractChain<CProxy
      */
     @Override
     protected CProxyBeforeParam<T> handler(CProxyBeforeParam<T> inParam) {
-        this.operate(inParam);
+        if (!inParam.isIntercepted()) this.operate(inParam);
         return inParam;
     }
 
+    /**
+     * 从当前链一直处理到最后一个链 参数只在本次调用内传递 不会存放在链上 多个线程可以同时执行
+     * @param beforeParam 里面有 代理对象本身 需要代理的方法 传入的参数
+     * @return 最后一个链处理后的参数
+     */
+    @SuppressWarnings("unchecked")
+    public CProxyBeforeParam<T> execute(CProxyBeforeParam<T> beforeParam) {
+        CAbstractBeforeProxyHandle<T> handle = this;
+        while (handle != null) {
+            beforeParam = handle.handler(beforeParam);
+            handle = (CAbstractBeforeProxyHandle<T>) handle.getNext();
+        }
+        return beforeParam;
+    }
+
     /**
      * 需要子类实现的代理方法
      * @param beforeParam 里面有 代理对象本身 需要代理的方法 传入的参数
@@ -1,6 +1,8 @@
 package io.github.campanula.utils.proxy.param;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 要在方法执行前的参数
@@ -11,6 +13,18 @@ public class CProxyBeforeParam<T> {
     private T proxy;
     private Method method;
     private Object[] args;
+    /**
+     * 是否拦截本次调用 拦截后不再执行被代理的方法 直接返回result
+     */
+    private boolean intercepted;
+    /**
+     * 拦截后作为方法的返回值
+     */
+    private Object result;
+    /**
+     * 本次调用结束时一定会执行的回调 用于归还before链里拿到的资源
+     */
+    private List<Runnable> completions;
 
     public CProxyBeforeParam(T proxy, Method method, Object[] args) {
         this.proxy = proxy;
@@ -44,4 +58,51 @@ public class CProxyBeforeParam<T> {
     public void setArgs(Object[] args) {
         this.args = args;
     }
+
+    /**
+     * 拦截本次调用 之后的before链不再执行 被代理的方法和after链也不会执行
+     * @param result 作为方法的返回值
+     */
+    public void intercept(Object result) {
+        this.intercepted = true;
+        this.result = result;
+    }
+
+    public boolean isIntercepted() {
+        return intercepted;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    /**
+     * 注册本次调用结束时执行的回调 无论被拦截 抛出异常还是正常返回都会执行 按注册的倒序执行
+     * @param completion 回调
+     */
+    public void onComplete(Runnable completion) {
+        if (this.completions == null) this.completions = new ArrayList<>(2);
+        this.completions.add(completion);
+    }
+
+    /**
+     * 执行所有注册的回调 一个回调抛出异常不影响其他回调 只由代理调用
+     */
+    public void complete() {
+        List<Runnable> list = this.completions;
+        if (list == null) return;
+        this.completions = null;
+        Throwable error = null;
+        for (int i = list.size() - 1; i >= 0; i--) {
+            try {
+                list.get(i).run();
+            }
+            catch (Throwable e) {
+                if (error == null) error = e;
+                else error.addSuppressed(e);
+            }
+        }
+        if (error instanceof RuntimeException) throw (RuntimeException) error;
+        if (error instanceof Error) throw (Error) error;
+    }
 }
@@ -8,6 +8,7 @@ import io.github.campanula.utils.proxy.param.CProxyAfterParam;
 import io.github.campanula.utils.proxy.param.CProxyBeforeParam;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 /**
@@ -23,32 +24,70 @@ public class CInvocationHandler<T> extends CAbstractProxyHandler<T> implements I
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) {
         Object invoke = null;
+        T target = this.t;
+        CProxyBeforeParam<T> beforeParam = new CProxyBeforeParam<T>(target, method, args);
+        Throwable failure = null;
 
         try {
 
             if (this.before != null) {
-                this.before.setParam(new CProxyBeforeParam<T>(t, method, args));
-                CProxyBeforeParam<T> execute = (CProxyBeforeParam<T>)this.before.execute();
-                t = execute.getProxy();
+                CProxyBeforeParam<T> execute = this.before.execute(beforeParam);
+                if (execute.isIntercepted()) {
+                    return execute.getResult();
+                }
+                target = execute.getProxy();
                 method = execute.getMethod();
                 args = execute.getArgs();
             }
 
-            invoke = method.invoke(t, args);
+            try {
+                invoke = method.invoke(target, args);
+            }
+            catch (InvocationTargetException e) {
+                if (this.after != null) {
+                    this.after.exception(new CProxyAfterParam<T>(target, method, args, null), e.getCause());
+                }
+                throw e;
+            }
 
             if (this.after != null) {
-                this.after.setParam(new CProxyAfterParam<T>(t, method, args, invoke));
-                CProxyAfterParam<T> execute = (CProxyAfterParam<T>)this.after.execute();
-                t = execute.getProxy();
+                CProxyAfterParam<T> execute = this.after.execute(new CProxyAfterParam<T>(target, method, args, invoke));
                 invoke = execute.getResult();
             }
 
         }
+        catch (RuntimeException | Error e) {
+            // 原样抛出 调用方可以直接按类型捕获 比如before链拒绝时的CallNotPermittedRuntimeException
+            failure = e;
+            throw e;
+        }
         catch (Exception e) {
-            throw new CampanulaRuntimeException(e);
+            CampanulaRuntimeException wrapped = new CampanulaRuntimeException(e);
+            failure = wrapped;
+            throw wrapped;
+        }
+        finally {
+            // before链拿到的资源(比如并发数的名额)在任何情况下都要归还
+            complete(beforeParam, failure);
         }
 
         return invoke;
     }
 
+    /**
+     * 已经有异常时 回调抛出的异常加到原异常的suppressed里 不覆盖原异常
+     */
+    private static void complete(CProxyBeforeParam<?> beforeParam, Throwable failure) {
+        if (failure == null) {
+            beforeParam.complete();
+            return;
+        }
+        try {
+            beforeParam.complete();
+        }
+        catch (Throwable e) {
+            failure.addSuppressed(e);
+        }
+    }
+
 }
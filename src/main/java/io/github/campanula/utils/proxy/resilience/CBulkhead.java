@@ -0,0 +1,144 @@
+package io.github.campanula.utils.proxy.resilience;
+
+import io.github.campanula.utils.exception.CallNotPermittedRuntimeException;
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+import io.github.campanula.utils.proxy.CAbstractBeforeProxyHandle;
+import io.github.campanula.utils.proxy.param.CProxyBeforeParam;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 并发数限制(舱壁) 按被代理的方法分别限制同时执行的调用数
+ * 没有空闲名额时立即拒绝 或者排队等待一段时间 仍然拿不到名额时走fallback
+ *
+ * before()放入proxyBeforePlus的链即可 名额在本次调用结束时归还
+ * 无论后面的before链拦截或者抛出异常 方法或者after链抛出异常 名额都会归还
+ * @param <T> 要代理的对象
+ */
+public final class CBulkhead<T> {
+
+    /**
+     * 每个方法最多同时执行的调用数
+     */
+    private int maxConcurrentCalls = 16;
+
+    /**
+     * 没有名额时最多等待的时间(纳秒) 0表示立即拒绝
+     */
+    private long maxWaitNanos;
+
+    /**
+     * 被拒绝时的返回值 为空时抛出CallNotPermittedRuntimeException
+     */
+    private Function<CProxyBeforeParam<T>, Object> fallback;
+
+    private final ConcurrentHashMap<Method, Semaphore> semaphores = new ConcurrentHashMap<>();
+    private final CAbstractBeforeProxyHandle<T> before = new BeforeHandle();
+
+    private CBulkhead() {
+    }
+
+    /**
+     * @return 放入proxyBeforePlus链的处理 每次返回同一个实例
+     */
+    public CAbstractBeforeProxyHandle<T> before() {
+        return before;
+    }
+
+    /**
+     * @param method 被代理的方法
+     * @return 这个方法当前剩余的名额
+     */
+    public int availableCalls(Method method) {
+        Semaphore semaphore = semaphores.get(method);
+        return semaphore == null ? maxConcurrentCalls : semaphore.availablePermits();
+    }
+
+    private Semaphore semaphore(Method method) {
+        Semaphore semaphore = semaphores.get(method);
+        return semaphore != null ? semaphore : semaphores.computeIfAbsent(method, key -> new Semaphore(maxConcurrentCalls, maxWaitNanos > 0));
+    }
+
+    private boolean tryAcquire(Semaphore semaphore) {
+        if (semaphore.tryAcquire()) return true;
+        if (maxWaitNanos <= 0) return false;
+        try {
+            return semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private final class BeforeHandle extends CAbstractBeforeProxyHandle<T> {
+
+        @Override
+        protected void operate(CProxyBeforeParam<T> beforeParam) {
+            Semaphore semaphore = semaphore(beforeParam.getMethod());
+            if (tryAcquire(semaphore)) {
+                beforeParam.onComplete(semaphore::release);
+                return;
+            }
+            if (fallback == null) {
+                throw new CallNotPermittedRuntimeException("bulkhead is full: " + beforeParam.getMethod().getName());
+            }
+            beforeParam.intercept(fallback.apply(beforeParam));
+        }
+    }
+
+    /**
+     * 并发数限制的初始化以及拼装
+     * @param <T> 要代理的对象
+     */
+    public final static class Builder<T> {
+
+        private CBulkhead<T> bulkhead;
+
+        private Builder() {
+            this.bulkhead = new CBulkhead<>();
+        }
+
+        public static <T> Builder<T> aBuilder() {
+            return new Builder<>();
+        }
+
+        /**
+         * @param maxConcurrentCalls 每个方法最多同时执行的调用数
+         * @return 拼装类本身
+         */
+        public Builder<T> maxConcurrentCalls(int maxConcurrentCalls) {
+            if (maxConcurrentCalls < 1) throw new CampanulaRuntimeException("maxConcurrentCalls must be greater than 0");
+            this.bulkhead.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+
+        /**
+         * 没有名额时按先后顺序排队等待
+         * @param maxWait 最多等待的时间
+         * @param unit 时间单位
+         * @return 拼装类本身
+         */
+        public Builder<T> maxWait(long maxWait, TimeUnit unit) {
+            this.bulkhead.maxWaitNanos = unit.toNanos(maxWait);
+            return this;
+        }
+
+        /**
+         * @param fallback 被拒绝时的返回值
+         * @return 拼装类本身
+         */
+        public Builder<T> fallback(Function<CProxyBeforeParam<T>, Object> fallback) {
+            this.bulkhead.fallback = fallback;
+            return this;
+        }
+
+        public CBulkhead<T> getBulkhead() {
+            return this.bulkhead;
+        }
+    }
+}
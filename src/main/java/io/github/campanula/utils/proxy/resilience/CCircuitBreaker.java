@@ -0,0 +1,312 @@
+package io.github.campanula.utils.proxy.resilience;
+
+import io.github.campanula.utils.exception.CallNotPermittedRuntimeException;
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+import io.github.campanula.utils.proxy.CAbstractAfterProxyHandle;
+import io.github.campanula.utils.proxy.CAbstractBeforeProxyHandle;
+import io.github.campanula.utils.proxy.param.CProxyAfterParam;
+import io.github.campanula.utils.proxy.param.CProxyBeforeParam;
+
+import java.lang.reflect.Method;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 熔断器 按被代理的方法分别统计
+ * 滑动窗口内失败率达到阈值后打开 打开期间直接走fallback 不会调用被代理的方法
+ * 打开一段时间后进入半开 放行少量探测调用 探测全部成功后关闭 任何一次失败重新打开
+ *
+ * before()放入proxyBeforePlus的链 after()放入proxyAfterPlus的链 两者要同时使用
+ * 和CBulkhead一起使用时 熔断器的before要放在CBulkhead的before前面
+ * @param <T> 要代理的对象
+ */
+public final class CCircuitBreaker<T> {
+
+    /**
+     * 熔断器的状态
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    /**
+     * 失败率阈值 (0, 1]
+     */
+    private double failureRateThreshold = 0.5D;
+
+    /**
+     * 窗口内至少有这么多次调用才会计算失败率
+     */
+    private int minimumCalls = 20;
+
+    /**
+     * 滑动窗口的长度(纳秒)
+     */
+    private long windowNanos = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * 滑动窗口切分的桶数
+     */
+    private int bucketCount = 10;
+
+    /**
+     * 打开后多久进入半开(纳秒)
+     */
+    private long openNanos = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * 半开时放行的探测调用数
+     */
+    private int halfOpenCalls = 5;
+
+    /**
+     * 计为失败的异常类型(包含子类) 为空时全部计为失败
+     */
+    private List<Class<? extends Throwable>> recordOn;
+
+    /**
+     * 被拒绝时的返回值 为空时抛出CallNotPermittedRuntimeException
+     */
+    private Function<CProxyBeforeParam<T>, Object> fallback;
+
+    private final ConcurrentHashMap<Method, MethodState> states = new ConcurrentHashMap<>();
+    private final CAbstractBeforeProxyHandle<T> before = new BeforeHandle();
+    private final CAbstractAfterProxyHandle<T> after = new AfterHandle();
+
+    private CCircuitBreaker() {
+        this.recordOn = new LinkedList<>();
+    }
+
+    /**
+     * @return 放入proxyBeforePlus链的处理 每次返回同一个实例
+     */
+    public CAbstractBeforeProxyHandle<T> before() {
+        return before;
+    }
+
+    /**
+     * @return 放入proxyAfterPlus链的处理 每次返回同一个实例
+     */
+    public CAbstractAfterProxyHandle<T> after() {
+        return after;
+    }
+
+    /**
+     * @param method 被代理的方法
+     * @return 这个方法当前的状态
+     */
+    public State getState(Method method) {
+        MethodState state = states.get(method);
+        return state == null ? State.CLOSED : State.values()[state.state.get()];
+    }
+
+    /**
+     * 把方法的熔断器重置为关闭
+     * @param method 被代理的方法
+     */
+    public void reset(Method method) {
+        MethodState state = states.get(method);
+        if (state != null) {
+            state.window.reset();
+            state.state.set(CLOSED);
+        }
+    }
+
+    /**
+     * 单个方法的熔断状态
+     */
+    private final class MethodState {
+
+        private final AtomicInteger state = new AtomicInteger(CLOSED);
+        private final CSlidingWindow window = new CSlidingWindow(windowNanos, bucketCount);
+        private final AtomicInteger probePermits = new AtomicInteger();
+        private final AtomicInteger probeSuccesses = new AtomicInteger();
+        private final AtomicLong halfOpenedAt = new AtomicLong();
+        private volatile long openedAt;
+
+        private boolean tryAcquire(long now) {
+            switch (state.get()) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (now - openedAt < openNanos) return false;
+                    if (state.compareAndSet(OPEN, HALF_OPEN)) {
+                        probeSuccesses.set(0);
+                        probePermits.set(halfOpenCalls - 1);
+                        halfOpenedAt.set(now);
+                        return true;
+                    }
+                    return tryAcquire(now);
+                default:
+                    if (probePermits.getAndDecrement() > 0) return true;
+                    // 探测调用被后面的链拒绝时不会有结果 半开超时后重新放行探测
+                    long halfOpened = halfOpenedAt.get();
+                    if (now - halfOpened < openNanos || !halfOpenedAt.compareAndSet(halfOpened, now)) return false;
+                    probeSuccesses.set(0);
+                    probePermits.set(halfOpenCalls - 1);
+                    return true;
+            }
+        }
+
+        private void onSuccess(long now) {
+            if (state.get() == HALF_OPEN) {
+                if (probeSuccesses.incrementAndGet() >= halfOpenCalls && state.compareAndSet(HALF_OPEN, CLOSED)) {
+                    window.reset();
+                }
+                return;
+            }
+            window.record(now, false);
+        }
+
+        private void onFailure(long now) {
+            int current = state.get();
+            if (current == HALF_OPEN) {
+                open(HALF_OPEN, now);
+                return;
+            }
+            if (current == OPEN) return;
+
+            window.record(now, true);
+            long snapshot = window.snapshot(now);
+            long calls = snapshot >>> 32;
+            long failures = snapshot & 0xFFFFFFFFL;
+            if (calls >= minimumCalls && failures >= calls * failureRateThreshold) {
+                open(CLOSED, now);
+            }
+        }
+
+        private void open(int expect, long now) {
+            openedAt = now;
+            if (state.compareAndSet(expect, OPEN)) window.reset();
+        }
+    }
+
+    private MethodState state(Method method) {
+        MethodState state = states.get(method);
+        return state != null ? state : states.computeIfAbsent(method, key -> new MethodState());
+    }
+
+    private boolean recorded(Throwable e) {
+        if (recordOn.isEmpty()) return true;
+        for (Class<? extends Throwable> clazz : recordOn) {
+            if (clazz.isInstance(e)) return true;
+        }
+        return false;
+    }
+
+    private final class BeforeHandle extends CAbstractBeforeProxyHandle<T> {
+
+        @Override
+        protected void operate(CProxyBeforeParam<T> beforeParam) {
+            if (state(beforeParam.getMethod()).tryAcquire(System.nanoTime())) return;
+            if (fallback == null) {
+                throw new CallNotPermittedRuntimeException("circuit breaker is open: " + beforeParam.getMethod().getName());
+            }
+            beforeParam.intercept(fallback.apply(beforeParam));
+        }
+    }
+
+    private final class AfterHandle extends CAbstractAfterProxyHandle<T> {
+
+        @Override
+        protected void operate(CProxyAfterParam<T> afterParam) {
+            state(afterParam.getMethod()).onSuccess(System.nanoTime());
+        }
+
+        @Override
+        protected void operateException(CProxyAfterParam<T> afterParam, Throwable e) {
+            MethodState state = state(afterParam.getMethod());
+            if (recorded(e)) state.onFailure(System.nanoTime());
+            else state.onSuccess(System.nanoTime());
+        }
+    }
+
+    /**
+     * 熔断器的初始化以及拼装
+     * @param <T> 要代理的对象
+     */
+    public final static class Builder<T> {
+
+        private CCircuitBreaker<T> breaker;
+
+        private Builder() {
+            this.breaker = new CCircuitBreaker<>();
+        }
+
+        public static <T> Builder<T> aBuilder() {
+            return new Builder<>();
+        }
+
+        /**
+         * @param failureRateThreshold 失败率阈值 (0, 1]
+         * @param minimumCalls 窗口内至少有这么多次调用才会计算失败率
+         * @return 拼装类本身
+         */
+        public Builder<T> failureRate(double failureRateThreshold, int minimumCalls) {
+            if (failureRateThreshold <= 0D || failureRateThreshold > 1D) throw new CampanulaRuntimeException("failureRateThreshold must be between 0 and 1");
+            if (minimumCalls < 1) throw new CampanulaRuntimeException("minimumCalls must be greater than 0");
+            this.breaker.failureRateThreshold = failureRateThreshold;
+            this.breaker.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param window 滑动窗口的长度
+         * @param unit 时间单位
+         * @param bucketCount 窗口切分的桶数 [1, 1024]
+         * @return 拼装类本身
+         */
+        public Builder<T> window(long window, TimeUnit unit, int bucketCount) {
+            if (bucketCount < 1 || bucketCount > 1024) throw new CampanulaRuntimeException("bucketCount must be between 1 and 1024");
+            this.breaker.windowNanos = unit.toNanos(window);
+            this.breaker.bucketCount = bucketCount;
+            return this;
+        }
+
+        /**
+         * @param open 打开后多久进入半开
+         * @param unit 时间单位
+         * @param halfOpenCalls 半开时放行的探测调用数
+         * @return 拼装类本身
+         */
+        public Builder<T> open(long open, TimeUnit unit, int halfOpenCalls) {
+            if (halfOpenCalls < 1) throw new CampanulaRuntimeException("halfOpenCalls must be greater than 0");
+            this.breaker.openNanos = unit.toNanos(open);
+            this.breaker.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * @param eClass 计为失败的异常类型(包含子类) 不指定时全部计为失败
+         * @return 拼装类本身
+         */
+        public Builder<T> recordOn(Class<? extends Throwable> eClass) {
+            this.breaker.recordOn.add(eClass);
+            return this;
+        }
+
+        /**
+         * @param fallback 被拒绝时的返回值
+         * @return 拼装类本身
+         */
+        public Builder<T> fallback(Function<CProxyBeforeParam<T>, Object> fallback) {
+            this.breaker.fallback = fallback;
+            return this;
+        }
+
+        public CCircuitBreaker<T> getBreaker() {
+            return this.breaker;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package io.github.campanula.utils.proxy.resilience;
+
+import io.github.campanula.utils.exception.CallNotPermittedRuntimeException;
+import io.github.campanula.utils.exception.CampanulaRuntimeException;
+import io.github.campanula.utils.proxy.CAbstractBeforeProxyHandle;
+import io.github.campanula.utils.proxy.param.CProxyBeforeParam;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * 令牌桶限流 默认每个被代理的方法一个桶 也可以按参数等自定义key分桶
+ * 桶只用一个AtomicLong记录"下一个令牌的理论到达时间"(GCRA) 令牌的补充是按System.nanoTime()计算出来的
+ * 没有后台线程 没有竞争时一次获取只需要一次CAS
+ * 按自定义key分桶时 已经补满的桶和新建的桶没有区别 桶的个数超过上一次清理后的两倍时会删除这些桶 桶的个数不会无限增长
+ * 直接放入proxyBeforePlus的链即可
+ * @param <T> 要代理的对象
+ */
+public final class CRateLimiter<T> extends CAbstractBeforeProxyHandle<T> {
+
+    /**
+     * 拿不到令牌时的处理方式
+     */
+    public enum Mode {
+        /**
+         * 立即抛出CallNotPermittedRuntimeException
+         */
+        REJECT,
+        /**
+         * 预约下一个令牌 最多等待maxWait 超过时抛出CallNotPermittedRuntimeException
+         */
+        WAIT,
+        /**
+         * 立即走fallback
+         */
+        FALLBACK
+    }
+
+    /**
+     * 每个令牌的间隔(纳秒)
+     */
+    private long intervalNanos = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * 桶的容量(纳秒) 即 容量 * 间隔
+     */
+    private long capacityNanos = intervalNanos * 100;
+
+    /**
+     * WAIT模式下最多等待的时间(纳秒)
+     */
+    private long maxWaitNanos;
+
+    private Mode mode = Mode.REJECT;
+
+    /**
+     * 分桶的key 为空时按被代理的方法分桶
+     */
+    private Function<CProxyBeforeParam<T>, Object> keyFunction;
+
+    /**
+     * FALLBACK模式下的返回值
+     */
+    private Function<CProxyBeforeParam<T>, Object> fallback;
+
+    /**
+     * 已经从buckets删除的桶 拿到它的线程需要重新获取桶
+     */
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    private static final int MIN_SWEEP_SIZE = 1024;
+
+    private final ConcurrentHashMap<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 桶的个数超过这个值时清理一次
+     */
+    private volatile int sweepSize = MIN_SWEEP_SIZE;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private CRateLimiter() {
+    }
+
+    @Override
+    protected void operate(CProxyBeforeParam<T> beforeParam) {
+        Object key = keyFunction == null ? beforeParam.getMethod() : keyFunction.apply(beforeParam);
+        long wait = reserve(key, mode == Mode.WAIT ? maxWaitNanos : 0L);
+        if (wait == 0L) return;
+        if (wait > 0L) {
+            park(wait);
+            return;
+        }
+
+        if (mode == Mode.FALLBACK && fallback != null) {
+            beforeParam.intercept(fallback.apply(beforeParam));
+            return;
+        }
+        throw new CallNotPermittedRuntimeException("rate limit exceeded: " + key);
+    }
+
+    /**
+     * 不等待 尝试从key对应的桶获取一个令牌
+     * @param key 分桶的key
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(Object key) {
+        return reserve(key, 0L) == 0L;
+    }
+
+    /**
+     * 预约一个令牌
+     * @param key 分桶的key
+     * @param maxWait 最多可以等待的时间
+     * @return 0 立即可用 大于0 需要等待的纳秒数 小于0 拿不到令牌(没有预约)
+     */
+    private long reserve(Object key, long maxWait) {
+        AtomicLong bucket = bucket(key);
+        for (;;) {
+            long now = System.nanoTime();
+            long tat = bucket.get();
+            if (tat == EVICTED) {
+                bucket = bucket(key);
+                continue;
+            }
+            long next = (tat - now < 0 ? now : tat) + intervalNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > maxWait) return -1L;
+            if (bucket.compareAndSet(tat, next)) return wait > 0 ? wait : 0L;
+        }
+    }
+
+    private AtomicLong bucket(Object key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null && bucket.get() != EVICTED) return bucket;
+        if (bucket != null) buckets.remove(key, bucket);
+        if (buckets.size() >= sweepSize) sweep();
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime() - capacityNanos));
+    }
+
+    /**
+     * 删除已经补满的桶 先把桶标记为EVICTED再删除 正在使用这个桶的线程会重新获取 不会丢失预约
+     */
+    private void sweep() {
+        if (!sweeping.compareAndSet(false, true)) return;
+        try {
+            long now = System.nanoTime();
+            buckets.forEach((key, bucket) -> {
+                long tat = bucket.get();
+                if (tat != EVICTED && tat - now <= 0 && bucket.compareAndSet(tat, EVICTED)) buckets.remove(key, bucket);
+            });
+            sweepSize = Math.max(MIN_SWEEP_SIZE, buckets.size() * 2);
+        }
+        finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static void park(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        boolean interrupted = false;
+        while (nanos > 0) {
+            LockSupport.parkNanos(nanos);
+            if (Thread.interrupted()) interrupted = true;
+            nanos = deadline - System.nanoTime();
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * 限流的初始化以及拼装
+     * @param <T> 要代理的对象
+     */
+    public final static class Builder<T> {
+
+        private CRateLimiter<T> limiter;
+
+        private Builder() {
+            this.limiter = new CRateLimiter<>();
+        }
+
+        public static <T> Builder<T> aBuilder() {
+            return new Builder<>();
+        }
+
+        /**
+         * @param permitsPerSecond 每秒补充的令牌数
+         * @param burst 桶的容量 即允许的突发调用数
+         * @return 拼装类本身
+         */
+        public Builder<T> rate(double permitsPerSecond, int burst) {
+            if (permitsPerSecond <= 0D) throw new CampanulaRuntimeException("permitsPerSecond must be greater than 0");
+            if (burst < 1) throw new CampanulaRuntimeException("burst must be greater than 0");
+            this.limiter.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+            this.limiter.capacityNanos = this.limiter.intervalNanos * burst;
+            return this;
+        }
+
+        /**
+         * 拿不到令牌时立即拒绝
+         * @return 拼装类本身
+         */
+        public Builder<T> reject() {
+            this.limiter.mode = Mode.REJECT;
+            return this;
+        }
+
+        /**
+         * 拿不到令牌时预约并等待
+         * @param maxWait 最多等待的时间
+         * @param unit 时间单位
+         * @return 拼装类本身
+         */
+        public Builder<T> waitFor(long maxWait, TimeUnit unit) {
+            this.limiter.mode = Mode.WAIT;
+            this.limiter.maxWaitNanos = unit.toNanos(maxWait);
+            return this;
+        }
+
+        /**
+         * 拿不到令牌时走fallback
+         * @param fallback 被拒绝时的返回值
+         * @return 拼装类本身
+         */
+        public Builder<T> fallback(Function<CProxyBeforeParam<T>, Object> fallback) {
+            this.limiter.mode = Mode.FALLBACK;
+            this.limiter.fallback = fallback;
+            return this;
+        }
+
+        /**
+         * @param keyFunction 分桶的key 例如按某个参数限流
+         * @return 拼装类本身
+         */
+        public Builder<T> key(Function<CProxyBeforeParam<T>, Object> keyFunction) {
+            this.limiter.keyFunction = keyFunction;
+            return this;
+        }
+
+        public CRateLimiter<T> getLimiter() {
+            return this.limiter;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.campanula.utils.proxy.resilience;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按时间滑动的调用次数/失败次数统计 无锁
+ * 窗口被切分成若干个桶 每个桶用一个long存放 桶的编号(24位) 调用次数(20位) 失败次数(20位)
+ * 一次CAS就能完成桶的过期重置和计数
+ */
+final class CSlidingWindow {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long STAMP_MASK = (1L << 24) - 1;
+
+    private final AtomicLongArray buckets;
+    private final long bucketNanos;
+
+    /**
+     * @param windowNanos 窗口的长度(纳秒)
+     * @param bucketCount 窗口切分的桶数
+     */
+    CSlidingWindow(long windowNanos, int bucketCount) {
+        this.buckets = new AtomicLongArray(bucketCount);
+        this.bucketNanos = Math.max(1L, windowNanos / bucketCount);
+    }
+
+    /**
+     * 记录一次调用
+     * @param nowNanos System.nanoTime()
+     * @param failure 是否失败
+     */
+    void record(long nowNanos, boolean failure) {
+        long index = Math.floorDiv(nowNanos, bucketNanos);
+        int slot = (int) Math.floorMod(index, (long) buckets.length());
+        long stamp = index & STAMP_MASK;
+        long fail = failure ? 1L : 0L;
+        for (;;) {
+            long current = buckets.get(slot);
+            long next;
+            if ((current >>> (COUNT_BITS << 1)) == stamp) {
+                long calls = Math.min(COUNT_MASK, ((current >>> COUNT_BITS) & COUNT_MASK) + 1);
+                long failures = Math.min(COUNT_MASK, (current & COUNT_MASK) + fail);
+                next = (stamp << (COUNT_BITS << 1)) | (calls << COUNT_BITS) | failures;
+            }
+            else {
+                next = (stamp << (COUNT_BITS << 1)) | (1L << COUNT_BITS) | fail;
+            }
+            if (buckets.compareAndSet(slot, current, next)) return;
+        }
+    }
+
+    /**
+     * @param nowNanos System.nanoTime()
+     * @return 窗口内的调用次数(高32位)和失败次数(低32位)
+     */
+    long snapshot(long nowNanos) {
+        long stamp = Math.floorDiv(nowNanos, bucketNanos) & STAMP_MASK;
+        int length = buckets.length();
+        long calls = 0;
+        long failures = 0;
+        for (int i = 0; i < length; i++) {
+            long current = buckets.get(i);
+            long age = (stamp - (current >>> (COUNT_BITS << 1))) & STAMP_MASK;
+            if (age < length) {
+                calls += (current >>> COUNT_BITS) & COUNT_MASK;
+                failures += current & COUNT_MASK;
+            }
+        }
+        return (calls << 32) | failures;
+    }
+
+    void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0L);
+        }
+    }
+}